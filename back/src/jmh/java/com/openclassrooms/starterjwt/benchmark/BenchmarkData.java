@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+final class BenchmarkData {
+    static final int DESCRIPTION_LENGTH = 2000;
+
+    private BenchmarkData() {
+    }
+
+    static List<Session> sessions(int count, int usersPerSession) {
+        Teacher teacher = new Teacher(1L, "Delahaye", "Margot", LocalDateTime.now(), LocalDateTime.now());
+
+        List<User> users = new ArrayList<>(usersPerSession);
+        for (long id = 1; id <= usersPerSession; id++) {
+            users.add(new User(id, "user" + id + "@example.com", "Last" + id, "First" + id, "password", false,
+                    LocalDateTime.now(), LocalDateTime.now()));
+        }
+
+        String description = description();
+        List<Session> sessions = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            sessions.add(Session.builder()
+                    .id(id)
+                    .name("Session " + id)
+                    .date(new Date())
+                    .description(description)
+                    .teacher(teacher)
+                    .users(new ArrayList<>(users))
+                    .capacity(usersPerSession)
+                    .participantCount(usersPerSession)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+        }
+        return sessions;
+    }
+
+    static UserDetailsImpl userDetails() {
+        return UserDetailsImpl.builder()
+                .id(42L)
+                .username("yoga@studio.com")
+                .firstName("Admin")
+                .lastName("Admin")
+                .admin(true)
+                .password("password")
+                .build();
+    }
+
+    private static String description() {
+        StringBuilder description = new StringBuilder(DESCRIPTION_LENGTH);
+        while (description.length() < DESCRIPTION_LENGTH) {
+            description.append("Slow flow focused on breathing, hip opening and balance. ");
+        }
+        return description.substring(0, DESCRIPTION_LENGTH);
+    }
+}
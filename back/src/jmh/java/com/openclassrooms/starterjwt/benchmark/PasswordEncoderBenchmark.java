@@ -0,0 +1,50 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.WebSecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+    // <algorithm>:<cost>, the cost being the bcrypt strength or the PBKDF2 iteration count
+    @Param({"bcrypt:10", "bcrypt:12", "pbkdf2:185000"})
+    public String encoder;
+
+    private PasswordEncoder passwordEncoder;
+
+    private String hash;
+
+    @Setup
+    public void setup() {
+        String algorithm = encoder.substring(0, encoder.indexOf(':'));
+        int cost = Integer.parseInt(encoder.substring(encoder.indexOf(':') + 1));
+
+        WebSecurityConfig config = new WebSecurityConfig();
+        ReflectionTestUtils.setField(config, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(config, "passwordEncoderId", algorithm);
+        ReflectionTestUtils.setField(config, "bcryptStrength", "bcrypt".equals(algorithm) ? cost : 10);
+        ReflectionTestUtils.setField(config, "pbkdf2Iterations", "pbkdf2".equals(algorithm) ? cost : 185000);
+
+        passwordEncoder = config.passwordEncoder();
+        hash = passwordEncoder.encode("password123");
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("password123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("password123", hash);
+    }
+}
@@ -0,0 +1,59 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.config.VirtualThreads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Each operation is a burst of `concurrency` tasks that each sleep for `blockingMs`. Only executor scheduling is measured:
+// there is no database or connection pool behind it, so the score is not a request throughput.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestExecutorBenchmark {
+    // "platform" is Tomcat's default pool of 200 threads, "virtual" needs Java 21 or later
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"1000", "5000"})
+    public int concurrency;
+
+    @Param({"20"})
+    public int blockingMs;
+
+    private ExecutorService executorService;
+
+    @Setup
+    public void setup() {
+        executorService = "virtual".equals(executor)
+                ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executorService.execute(() -> {
+                try {
+                    Thread.sleep(blockingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+}
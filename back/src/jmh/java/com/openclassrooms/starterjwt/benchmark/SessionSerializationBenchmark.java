@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.security.GsonConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.GsonHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionSerializationBenchmark {
+    private static final Type SESSION_LIST = new TypeToken<List<SessionDto>>() { }.getType();
+
+    @Param({"20", "100"})
+    public int sessions;
+
+    @Param({"300"})
+    public int usersPerSession;
+
+    private SessionMapperImpl sessionMapper;
+
+    private GsonHttpMessageConverter converter;
+
+    private List<Session> entities;
+
+    private List<SessionDto> dtos;
+
+    @Setup
+    public void setup() {
+        sessionMapper = new SessionMapperImpl();
+
+        GsonConfig gsonConfig = new GsonConfig();
+        Gson gson = gsonConfig.gson();
+        converter = gsonConfig.gsonHttpMessageConverter(gson);
+
+        entities = BenchmarkData.sessions(sessions, usersPerSession);
+        dtos = sessionMapper.toDto(entities);
+    }
+
+    @Benchmark
+    public List<SessionDto> mapToDto() {
+        return sessionMapper.toDto(entities);
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(dtos, SESSION_LIST, MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsBytes().length;
+    }
+
+    @Benchmark
+    public int mapAndSerialize() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(sessionMapper.toDto(entities), SESSION_LIST, MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsBytes().length;
+    }
+}
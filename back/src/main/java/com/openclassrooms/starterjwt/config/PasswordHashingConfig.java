@@ -0,0 +1,27 @@
+package com.openclassrooms.starterjwt.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PasswordHashingConfig {
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(@Value("${oc.app.passwordHashThreads:0}") int threads,
+                                                       @Value("${oc.app.passwordHashQueueCapacity:100}") int queueCapacity,
+                                                       SqlStatementListener sqlStatementListener) {
+        // Hashing is CPU bound: one thread per core is the most it can use without slowing the rest of the API.
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        // Login and register look up and save users on this pool, on behalf of the request that submitted them.
+        executor.setTaskDecorator(sqlStatementListener);
+        return executor;
+    }
+}
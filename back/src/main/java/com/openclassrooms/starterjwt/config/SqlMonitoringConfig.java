@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.servlet.DispatcherType;
+import javax.sql.DataSource;
+
+@Configuration
+public class SqlMonitoringConfig {
+    @Bean
+    public SqlStatementListener sqlStatementListener(ObjectProvider<MeterRegistry> meterRegistry,
+                                                     @Value("${oc.app.slowSqlStatementMs:500}") long slowStatementMs) {
+        return new SqlStatementListener(meterRegistry, slowStatementMs);
+    }
+
+    // Static so that it is registered before the DataSource is created, and lazy on the listener for the same reason.
+    @Bean
+    public static BeanPostProcessor sqlStatementDataSourcePostProcessor(ObjectProvider<SqlStatementListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                            .listener(listener.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementFilter> sqlStatementFilter(SqlStatementListener listener,
+                                                                        MeterRegistry meterRegistry,
+                                                                        @Value("${oc.app.sqlStatementsPerRequestThreshold:20}") int statementThreshold) {
+        FilterRegistrationBean<SqlStatementFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementFilter(listener, meterRegistry, statementThreshold));
+        // Outermost, so the statements run by the security filters are counted too.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+}
@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public class SqlStatementFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    private final SqlStatementListener listener;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int statementThreshold;
+
+    static final String STATEMENTS_ATTRIBUTE = SqlStatementFilter.class.getName() + ".STATEMENTS";
+
+    public SqlStatementFilter(SqlStatementListener listener, MeterRegistry meterRegistry, int statementThreshold) {
+        this.listener = listener;
+        this.meterRegistry = meterRegistry;
+        this.statementThreshold = statementThreshold;
+    }
+
+    // Async requests are filtered again on their async dispatch, which is when they are recorded.
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementListener.RequestStatements statements =
+                (SqlStatementListener.RequestStatements) request.getAttribute(STATEMENTS_ATTRIBUTE);
+        if (statements == null) {
+            statements = listener.beginRequest();
+            request.setAttribute(STATEMENTS_ATTRIBUTE, statements);
+        } else {
+            listener.resumeRequest(statements);
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            listener.endRequest();
+            if (!isAsyncStarted(request)) {
+                record(request, statements);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementListener.RequestStatements statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("http.server.sql.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements.getCount());
+
+        if (statements.getCount() > statementThreshold) {
+            logger.warn("{} {} ran {} SQL statements in {} ms", request.getMethod(), request.getRequestURI(),
+                    statements.getCount(), statements.getElapsedMs());
+            meterRegistry.counter("http.server.sql.excessive", "method", request.getMethod(), "uri", uri).increment();
+        }
+    }
+}
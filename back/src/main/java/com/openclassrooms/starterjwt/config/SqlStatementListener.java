@@ -0,0 +1,138 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Also a TaskDecorator, so that statements run by executor tasks are counted against the request that submitted them.
+public class SqlStatementListener implements QueryExecutionListener, TaskDecorator {
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementListener.class);
+
+    // A stack, so that a scope opened inside another (a test around a filtered request) gives the outer one back.
+    private static final ThreadLocal<Deque<RequestStatements>> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final long slowStatementMs;
+
+    public SqlStatementListener(ObjectProvider<MeterRegistry> meterRegistry, long slowStatementMs) {
+        this.meterRegistry = meterRegistry;
+        this.slowStatementMs = slowStatementMs;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // One execution is one round trip to the database, whether it carries a single statement or a batch.
+        // It counts against the enclosing scopes too.
+        for (RequestStatements request = current(); request != null; request = request.parent) {
+            request.count.incrementAndGet();
+            request.elapsedMs.addAndGet(execInfo.getElapsedTime());
+        }
+
+        String type = queryInfoList.isEmpty() ? "other"
+                : QueryUtils.getQueryType(queryInfoList.get(0).getQuery()).name().toLowerCase();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.timer("sql.statements", "type", type).record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+        }
+
+        if (execInfo.getElapsedTime() > slowStatementMs) {
+            logger.warn("Slow SQL statement ({} ms): {}", execInfo.getElapsedTime(), queryInfoList.stream()
+                    .map(QueryInfo::getQuery)
+                    .collect(Collectors.joining("; ")));
+            if (registry != null) {
+                registry.counter("sql.slow.statements", "type", type).increment();
+            }
+        }
+    }
+
+    public RequestStatements beginRequest() {
+        RequestStatements request = new RequestStatements(current());
+        bind(request);
+        return request;
+    }
+
+    // Binds a request again on the thread of an async dispatch.
+    public void resumeRequest(RequestStatements request) {
+        bind(request);
+    }
+
+    // Unbinds the innermost scope and restores the one it was opened in.
+    public RequestStatements endRequest() {
+        Deque<RequestStatements> requests = CURRENT_REQUEST.get();
+        RequestStatements request = requests != null ? requests.poll() : null;
+        if (requests != null && requests.isEmpty()) {
+            CURRENT_REQUEST.remove();
+        }
+        return request != null ? request : new RequestStatements(null);
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        RequestStatements request = current();
+        if (request == null) {
+            return task;
+        }
+
+        return () -> {
+            resumeRequest(request);
+            try {
+                task.run();
+            } finally {
+                endRequest();
+            }
+        };
+    }
+
+    private static RequestStatements current() {
+        Deque<RequestStatements> requests = CURRENT_REQUEST.get();
+        return requests != null ? requests.peek() : null;
+    }
+
+    private static void bind(RequestStatements request) {
+        Deque<RequestStatements> requests = CURRENT_REQUEST.get();
+        if (requests == null) {
+            requests = new ArrayDeque<>();
+            CURRENT_REQUEST.set(requests);
+        }
+        requests.push(request);
+    }
+
+    public static class RequestStatements {
+        private final RequestStatements parent;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final AtomicLong elapsedMs = new AtomicLong();
+
+        private RequestStatements(RequestStatements parent) {
+            this.parent = parent;
+        }
+
+        public int getCount() {
+            return count.get();
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs.get();
+        }
+    }
+}
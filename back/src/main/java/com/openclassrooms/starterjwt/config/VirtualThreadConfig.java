@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@ConditionalOnProperty(name = "oc.app.virtualThreads", havingValue = "true")
+public class VirtualThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        logger.info("Handling requests and asynchronous tasks on virtual threads");
+        return VirtualThreads.newVirtualThreadPerTaskExecutor();
+    }
+
+    // Static so that it is registered before the DataSource is created.
+    @Bean
+    public static VirtualThreadPoolCustomizer virtualThreadPoolCustomizer(
+            @Value("${oc.app.virtualThreadPoolSize}") int maximumPoolSize,
+            @Value("${oc.app.virtualThreadConnectionTimeoutMs}") long connectionTimeoutMs) {
+        return new VirtualThreadPoolCustomizer(maximumPoolSize, connectionTimeoutMs);
+    }
+
+    // Tomcat hands every request to this executor instead of its own maxThreads-bounded pool.
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            @Qualifier("virtualThreadExecutor") ExecutorService executor) {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // Used by Spring MVC for Callable handlers and, under the name "taskExecutor", by @Async methods.
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(@Qualifier("virtualThreadExecutor") ExecutorService executor) {
+        return new ConcurrentTaskExecutor(executor);
+    }
+}
@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// Without Tomcat's thread cap, the connection pool is what limits concurrent database access, so virtual-thread
+// mode sizes it explicitly and lets a saturated pool fail fast instead of piling up requests behind it.
+public class VirtualThreadPoolCustomizer implements BeanPostProcessor {
+    private final int maximumPoolSize;
+
+    private final long connectionTimeoutMs;
+
+    public VirtualThreadPoolCustomizer(int maximumPoolSize, long connectionTimeoutMs) {
+        this.maximumPoolSize = maximumPoolSize;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    // Unwrapped, as the pool may already sit behind the SQL monitoring proxy by the time this runs.
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            try {
+                DataSource dataSource = (DataSource) bean;
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                    pool.setMaximumPoolSize(maximumPoolSize);
+                    pool.setConnectionTimeout(connectionTimeoutMs);
+                }
+            } catch (SQLException e) {
+                throw new BeanInitializationException("Could not size the connection pool of " + beanName, e);
+            }
+        }
+
+        return bean;
+    }
+}
@@ -1,34 +1,87 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.openclassrooms.starterjwt.dto.EnrolmentDto;
+import com.openclassrooms.starterjwt.dto.ResourceVersion;
+import com.openclassrooms.starterjwt.dto.SearchFacetDto;
+import com.openclassrooms.starterjwt.dto.SessionCalendarDto;
+import com.openclassrooms.starterjwt.dto.SessionCursor;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPageDto;
+import com.openclassrooms.starterjwt.dto.SessionSearchDto;
+import com.openclassrooms.starterjwt.dto.WaitlistPositionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.projection.SessionListVersion;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import com.openclassrooms.starterjwt.repository.projection.SessionSearchFacet;
+import com.openclassrooms.starterjwt.repository.projection.SessionSlot;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
+import com.openclassrooms.starterjwt.services.EnrolmentQueue;
+import com.openclassrooms.starterjwt.services.SessionExportService;
+import com.openclassrooms.starterjwt.services.SessionImportService;
 import com.openclassrooms.starterjwt.services.SessionService;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_CALENDAR_SIZE = 500;
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final Pattern IDEMPOTENCY_KEY = Pattern.compile("[A-Za-z0-9:_-]{1,64}");
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final EnrolmentQueue enrolmentQueue;
+    private final SessionImportService sessionImportService;
+    private final SessionExportService sessionExportService;
+    private final Gson gson;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             EnrolmentQueue enrolmentQueue,
+                             SessionImportService sessionImportService,
+                             SessionExportService sessionExportService,
+                             Gson gson) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.enrolmentQueue = enrolmentQueue;
+        this.sessionImportService = sessionImportService;
+        this.sessionExportService = sessionExportService;
+        this.gson = gson;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
         try {
             Session session = this.sessionService.getById(Long.valueOf(id));
 
@@ -36,17 +89,154 @@ public class SessionController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            ResourceVersion version = ResourceVersion.of(session.getUpdatedAt(),
+                    session.getId(), session.getParticipantCount(),
+                    session.getUsers().stream().map(User::getId).collect(Collectors.toList()));
+            if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+            }
+
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(this.sessionMapper.toDto(session));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(WebRequest request) {
+        SessionListVersion listVersion = this.sessionService.getListVersion();
+        ResourceVersion version = ResourceVersion.of(listVersion.getLastModified(),
+                listVersion.getCount(), listVersion.getParticipantTotal());
+
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+
+        List<SessionSummary> sessions = this.sessionService.findAllSummaries();
+
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(this.sessionMapper.toDto(sessions, this.sessionService.findParticipantIds()));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> findPage(@RequestParam(value = "after", required = false) String after,
+                                      @RequestParam(value = "size", defaultValue = "20") int size,
+                                      @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                      @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
+        if (size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        SessionCursor cursor = after != null ? SessionCursor.decode(after) : null;
+
+        List<SessionSummary> sessions = this.sessionService.findSummaryPage(from, to, cursor, pageSize + 1);
+
+        String next = null;
+        if (sessions.size() > pageSize) {
+            sessions = sessions.subList(0, pageSize);
+            SessionSummary last = sessions.get(pageSize - 1);
+            next = new SessionCursor(last.getDate(), last.getId()).encode();
+        }
+
+        List<Long> ids = sessions.stream().map(SessionSummary::getId).collect(Collectors.toList());
+
+        return ResponseEntity.ok().body(new SessionPageDto(
+                this.sessionMapper.toDto(sessions, this.sessionService.findParticipantIds(ids)),
+                next));
+    }
+
+    @GetMapping("/calendar")
+    public ResponseEntity<?> findCalendar(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                          @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                          @RequestParam(value = "teacherId", required = false) Long teacherId,
+                                          @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (!from.before(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return calendar(teacherId, from, to, Sort.Direction.ASC, limit);
+    }
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+    @GetMapping("/calendar/upcoming")
+    public ResponseEntity<?> findUpcoming(@RequestParam(value = "teacherId", required = false) Long teacherId,
+                                          @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return calendar(teacherId, new Date(), null, Sort.Direction.ASC, limit);
+    }
+
+    // Most recent first
+    @GetMapping("/calendar/past")
+    public ResponseEntity<?> findPast(@RequestParam(value = "teacherId", required = false) Long teacherId,
+                                      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return calendar(teacherId, null, new Date(), Sort.Direction.DESC, limit);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String q,
+                                    @RequestParam(value = "teacherId", required = false) Long teacherId,
+                                    @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                    @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                    @RequestParam(value = "page", defaultValue = "0") int page,
+                                    @RequestParam(value = "size", defaultValue = "20") int size) {
+        String query = q.trim();
+        if (query.isEmpty() || page < 0 || size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        List<SessionSummary> sessions = this.sessionService.search(query, teacherId, from, to, page, pageSize);
+        List<Long> ids = sessions.stream().map(SessionSummary::getId).collect(Collectors.toList());
+
+        List<SessionSearchFacet> teachers = this.sessionService.searchTeacherFacets(query, from, to);
+        List<SessionSearchFacet> months = this.sessionService.searchMonthFacets(query, teacherId);
+
+        // The teacher facet already applies every other filter, so it also gives the total number of results.
+        long total = teachers.stream()
+                .filter(facet -> teacherId == null || teacherId.toString().equals(facet.getValue()))
+                .mapToLong(SessionSearchFacet::getCount)
+                .sum();
+
+        return ResponseEntity.ok().body(new SessionSearchDto(
+                this.sessionMapper.toDto(sessions, this.sessionService.findParticipantIds(ids)),
+                total,
+                page,
+                pageSize,
+                toFacetDto(teachers),
+                toFacetDto(months)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void streamAll(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        JsonWriter writer = this.gson.newJsonWriter(response.getWriter());
+        writer.beginArray();
+        this.sessionService.streamAll((session, users) ->
+                this.gson.toJson(this.sessionMapper.toDto(session, users), SessionDto.class, writer));
+        writer.endArray();
+        writer.flush();
+    }
+
+    @GetMapping("/export")
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                       @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                       HttpServletResponse response) throws IOException {
+        if (!"ndjson".equals(format) && !"csv".equals(format)) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+
+        boolean csv = "csv".equals(format);
+        response.setContentType(csv ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sessions." + format + "\"");
+
+        if (csv) {
+            this.sessionExportService.exportCsv(from, to, response.getWriter());
+        } else {
+            this.sessionExportService.exportNdjson(from, to, response.getWriter());
+        }
     }
 
     @PostMapping()
@@ -59,6 +249,13 @@ public class SessionController {
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importSessions(HttpServletRequest request) throws IOException {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+
+        return ResponseEntity.ok().body(this.sessionImportService.importSessions(request.getReader(), ndjson));
+    }
+
     @PutMapping("{id}")
     public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
         try {
@@ -88,9 +285,18 @@ public class SessionController {
     }
 
     @PostMapping("{id}/participate/{userId}")
-    public ResponseEntity<?> participate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+    public ResponseEntity<?> participate(@PathVariable("id") String id, @PathVariable("userId") String userId,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+            Long sessionId = Long.parseLong(id);
+            Long user = Long.parseLong(userId);
+
+            if (this.enrolmentQueue.isEnabled()) {
+                // Without a client key every request is a new attempt, so an old status is never mistaken for it.
+                return enqueue(idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString(), sessionId, user);
+            }
+
+            this.sessionService.participate(sessionId, user);
 
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
@@ -98,6 +304,17 @@ public class SessionController {
         }
     }
 
+    @GetMapping("enrolment/{key}")
+    public ResponseEntity<?> getEnrolment(@PathVariable("key") String key) {
+        EnrolmentDto enrolment = this.enrolmentQueue.getStatus(key);
+
+        if (enrolment == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok().body(enrolment);
+    }
+
     @DeleteMapping("{id}/participate/{userId}")
     public ResponseEntity<?> noLongerParticipate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
@@ -108,4 +325,84 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @PostMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> joinWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            Long sessionId = Long.parseLong(id);
+            Long user = Long.parseLong(userId);
+            long position = this.sessionService.joinWaitlist(sessionId, user);
+
+            return ResponseEntity.ok().body(new WaitlistPositionDto(sessionId, user, position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> getWaitlistPosition(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            Long sessionId = Long.parseLong(id);
+            Long user = Long.parseLong(userId);
+            long position = this.sessionService.getWaitlistPosition(sessionId, user);
+
+            return ResponseEntity.ok().body(new WaitlistPositionDto(sessionId, user, position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.sessionService.leaveWaitlist(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private ResponseEntity<?> enqueue(String key, Long sessionId, Long userId) {
+        if (!IDEMPOTENCY_KEY.matcher(key).matches()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid Idempotency-Key"));
+        }
+
+        // Scoped to the enrolled user, so that clients picking the same key cannot see or block each other's enrolments.
+        String userKey = userId + ":" + key;
+        try {
+            EnrolmentDto enrolment = this.enrolmentQueue.submit(userKey, sessionId, userId);
+
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/session/enrolment/" + userKey))
+                    .body(enrolment);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse("Error: " + e.getMessage() + ", please retry"));
+        }
+    }
+
+    private ResponseEntity<?> calendar(Long teacherId, Date from, Date to, Sort.Direction direction, int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = Math.min(limit, MAX_CALENDAR_SIZE);
+        List<SessionSlot> slots = this.sessionService.findSlots(teacherId, from, to, direction, pageSize + 1);
+
+        boolean more = slots.size() > pageSize;
+        if (more) {
+            slots = slots.subList(0, pageSize);
+        }
+
+        return ResponseEntity.ok().body(new SessionCalendarDto(this.sessionMapper.toSlotDto(slots), more));
+    }
+
+    private List<SearchFacetDto> toFacetDto(List<SessionSearchFacet> facets) {
+        return facets.stream()
+                .map(facet -> new SearchFacetDto(facet.getValue(), facet.getLabel(), facet.getCount()))
+                .collect(Collectors.toList());
+    }
 }
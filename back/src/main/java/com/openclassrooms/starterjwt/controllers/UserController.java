@@ -1,13 +1,18 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.dto.ResourceVersion;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
 import com.openclassrooms.starterjwt.services.UserService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Objects;
 
@@ -15,18 +20,26 @@ import java.util.Objects;
 @RestController
 @RequestMapping("/api/user")
 public class UserController {
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final UserMapper userMapper;
     private final UserService userService;
+    private final JwtTokenCache tokenCache;
+    private final JwtRevocationList revocationList;
 
 
     public UserController(UserService userService,
-                             UserMapper userMapper) {
+                             UserMapper userMapper,
+                             JwtTokenCache tokenCache,
+                             JwtRevocationList revocationList) {
         this.userMapper = userMapper;
         this.userService = userService;
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
         try {
 
             User user = this.userService.findById(Long.valueOf(id));
@@ -35,7 +48,12 @@ public class UserController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.userMapper.toDto(user));
+            ResourceVersion version = ResourceVersion.of(user.getUpdatedAt(), user.getId());
+            if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+            }
+
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(this.userMapper.toDto(user));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -57,6 +75,8 @@ public class UserController {
             }
 
             this.userService.delete(Long.parseLong(id));
+            this.revocationList.revoke(user.getId());
+            this.tokenCache.evictUser(user.getEmail());
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+    private long secondLevelCacheHitCount;
+
+    private long secondLevelCacheMissCount;
+
+    private long secondLevelCachePutCount;
+
+    private long queryCacheHitCount;
+
+    private long queryCacheMissCount;
+
+    private long queryCachePutCount;
+
+    private List<CacheRegionStatsDto> regions;
+}
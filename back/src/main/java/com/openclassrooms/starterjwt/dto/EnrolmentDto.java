@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrolmentDto {
+    private String key;
+
+    private Long sessionId;
+
+    private Long userId;
+
+    private Status status;
+
+    public enum Status {
+        PENDING,
+        ENROLLED,
+        ALREADY_ENROLLED,
+        FULL,
+        NOT_FOUND,
+        FAILED
+    }
+
+    public EnrolmentDto withStatus(Status status) {
+        return new EnrolmentDto(key, sessionId, userId, status);
+    }
+}
@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+
+@Data
+@AllArgsConstructor
+public class ResourceVersion {
+    private String eTag;
+
+    private long lastModified;
+
+    // The state is digested from its string form, so it should be made of values (ids, counts) rather than entities.
+    public static ResourceVersion of(LocalDateTime lastModified, Object... state) {
+        long millis = lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+
+        return new ResourceVersion(Long.toHexString(millis) + "-" + digest(Arrays.deepToString(state)), millis);
+    }
+
+    // A 32-bit hash collides too easily for a version that decides whether clients see a change.
+    private static String digest(String state) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(state.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetDto {
+    private String value;
+
+    private String label;
+
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionCalendarDto {
+    private List<SessionSlotDto> items;
+
+    // More sessions match than were returned; narrow the window or raise the limit.
+    private boolean more;
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionImportReportDto {
+    private int created;
+
+    private int rejected;
+
+    private List<SessionImportRowDto> rows;
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionImportRowDto {
+    private int row;
+
+    private Status status;
+
+    private Long id;
+
+    private List<String> errors;
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+}
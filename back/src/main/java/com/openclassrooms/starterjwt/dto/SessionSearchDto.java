@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSearchDto {
+    private List<SessionDto> items;
+
+    private long total;
+
+    private int page;
+
+    private int size;
+
+    private List<SearchFacetDto> teachers;
+
+    private List<SearchFacetDto> months;
+}
@@ -1,8 +1,12 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSlotDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.projection.SessionSlot;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.mapstruct.Mapper;
@@ -11,9 +15,14 @@ import org.mapstruct.Mappings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -28,10 +37,31 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
     @Mappings({
             @Mapping(source = "description", target = "description"),
             @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.findById(sessionDto.getTeacher_id()) : null)"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"),
+            @Mapping(target = "users", expression = "java(this.findUsers(sessionDto.getUsers()))"),
+            @Mapping(target = "participantCount", ignore = true),
     })
     public abstract Session toEntity(SessionDto sessionDto);
 
+    protected List<User> findUsers(List<Long> userIds) {
+        List<Long> ids = Optional.ofNullable(userIds).orElseGet(Collections::emptyList).stream()
+                .distinct()
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> users = this.userService.findAllById(ids.stream().filter(Objects::nonNull).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Long> missingIds = ids.stream().filter(id -> !users.containsKey(id)).collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            throw new BadRequestException("Unknown user ids: " + missingIds);
+        }
+
+        return ids.stream().map(users::get).collect(Collectors.toList());
+    }
+
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
@@ -39,4 +69,56 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
             @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
     })
     public abstract SessionDto toDto(Session session);
+
+    public SessionDto toDto(SessionSummary summary, List<Long> users) {
+        if (summary == null) {
+            return null;
+        }
+
+        return new SessionDto(
+                summary.getId(),
+                summary.getName(),
+                summary.getDate(),
+                summary.getTeacherId(),
+                summary.getDescription(),
+                users != null ? users : new ArrayList<>(),
+                summary.getCapacity(),
+                summary.getParticipantCount(),
+                summary.getCreatedAt(),
+                summary.getUpdatedAt());
+    }
+
+    public List<SessionDto> toDto(List<SessionSummary> summaries, Map<Long, List<Long>> participants) {
+        if (summaries == null) {
+            return null;
+        }
+
+        return summaries.stream()
+                .map(summary -> toDto(summary, participants.get(summary.getId())))
+                .collect(Collectors.toList());
+    }
+
+    public SessionSlotDto toDto(SessionSlot slot) {
+        if (slot == null) {
+            return null;
+        }
+
+        return new SessionSlotDto(
+                slot.getId(),
+                slot.getName(),
+                slot.getDate(),
+                slot.getTeacherId(),
+                slot.getCapacity(),
+                slot.getParticipantCount());
+    }
+
+    public List<SessionSlotDto> toSlotDto(List<SessionSlot> slots) {
+        if (slots == null) {
+            return null;
+        }
+
+        return slots.stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+// Row of the Session.users join table, mapped on its own so that batched enrolments are plain entity inserts.
+@Entity
+@Table(name = "PARTICIPATE")
+@IdClass(Participation.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Participation {
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long sessionId;
+
+        private Long userId;
+    }
+}
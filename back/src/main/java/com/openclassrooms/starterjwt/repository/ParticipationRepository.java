@@ -0,0 +1,13 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Participation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ParticipationRepository extends JpaRepository<Participation, Participation.Key> {
+    List<Participation> findBySessionIdInAndUserIdIn(Collection<Long> sessionIds, Collection<Long> userIds);
+}
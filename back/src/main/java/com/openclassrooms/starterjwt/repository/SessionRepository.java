@@ -1,12 +1,178 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.projection.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.projection.SessionListVersion;
+import com.openclassrooms.starterjwt.repository.projection.SessionParticipantRow;
+import com.openclassrooms.starterjwt.repository.projection.SessionSearchFacet;
+import com.openclassrooms.starterjwt.repository.projection.SessionSearchHit;
+import com.openclassrooms.starterjwt.repository.projection.SessionSeats;
+import com.openclassrooms.starterjwt.repository.projection.SessionSlot;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    // Served by the FTX_SESSIONS_NAME_DESCRIPTION full-text index, which InnoDB keeps up to date on every write.
+    String MATCHES_QUERY = "match(s.name, s.description) against (:query in natural language mode)";
+
     Optional<Session> findByName(String name);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    @Query("select s.id as id, s.name as name, s.date as date, s.description as description, t.id as teacherId, "
+            + "s.capacity as capacity, s.participantCount as participantCount, s.createdAt as createdAt, s.updatedAt as updatedAt "
+            + "from Session s left join s.teacher t order by s.id")
+    List<SessionSummary> findAllSummaries();
+
+    @Query("select s.id as id, s.name as name, s.date as date, s.description as description, t.id as teacherId, "
+            + "s.capacity as capacity, s.participantCount as participantCount, s.createdAt as createdAt, s.updatedAt as updatedAt "
+            + "from Session s left join s.teacher t "
+            + "where (:from is null or s.date >= :from) and (:to is null or s.date < :to) "
+            + "order by s.date, s.id")
+    List<SessionSummary> findSummaryPage(@Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+    @Query("select s.id as id, s.name as name, s.date as date, s.description as description, t.id as teacherId, "
+            + "s.capacity as capacity, s.participantCount as participantCount, s.createdAt as createdAt, s.updatedAt as updatedAt "
+            + "from Session s left join s.teacher t "
+            + "where (:from is null or s.date >= :from) and (:to is null or s.date < :to) "
+            + "and (s.date > :afterDate or (s.date = :afterDate and s.id > :afterId)) "
+            + "order by s.date, s.id")
+    List<SessionSummary> findSummaryPageAfter(@Param("from") Date from, @Param("to") Date to,
+                                              @Param("afterDate") Date afterDate, @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    @Query("select s.id as id, s.name as name, s.date as date, s.description as description, t.id as teacherId, "
+            + "s.capacity as capacity, s.participantCount as participantCount, s.createdAt as createdAt, s.updatedAt as updatedAt "
+            + "from Session s left join s.teacher t where s.id in :ids")
+    List<SessionSummary> findSummaries(@Param("ids") Collection<Long> ids);
+
+    @Query("select s.id as id, s.name as name, s.date as date, s.teacher.id as teacherId, "
+            + "s.capacity as capacity, s.participantCount as participantCount "
+            + "from Session s "
+            + "where (:from is null or s.date >= :from) and (:to is null or s.date < :to)")
+    List<SessionSlot> findSlots(@Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+    // A separate query so that the teacher equality always reaches IDX_SESSIONS_TEACHER_DATE.
+    @Query("select s.id as id, s.name as name, s.date as date, s.teacher.id as teacherId, "
+            + "s.capacity as capacity, s.participantCount as participantCount "
+            + "from Session s "
+            + "where s.teacher.id = :teacherId "
+            + "and (:from is null or s.date >= :from) and (:to is null or s.date < :to)")
+    List<SessionSlot> findTeacherSlots(@Param("teacherId") Long teacherId, @Param("from") Date from, @Param("to") Date to,
+                                       Pageable pageable);
+
+    @Query(value = "select s.id as id, " + MATCHES_QUERY + " as score from SESSIONS s "
+            + "where " + MATCHES_QUERY + " "
+            + "and (:teacherId is null or s.teacher_id = :teacherId) "
+            + "and (:from is null or s.date >= :from) and (:to is null or s.date < :to) "
+            + "order by score desc, s.id", nativeQuery = true)
+    List<SessionSearchHit> search(@Param("query") String query, @Param("teacherId") Long teacherId,
+                                  @Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+    // Ignores the teacher filter, so that the other teachers can still be offered.
+    @Query(value = "select cast(s.teacher_id as char) as value, concat(t.first_name, ' ', t.last_name) as label, count(*) as count "
+            + "from SESSIONS s left join TEACHERS t on t.id = s.teacher_id "
+            + "where " + MATCHES_QUERY + " "
+            + "and (:from is null or s.date >= :from) and (:to is null or s.date < :to) "
+            + "group by s.teacher_id, t.first_name, t.last_name "
+            + "order by count(*) desc, s.teacher_id", nativeQuery = true)
+    List<SessionSearchFacet> searchTeacherFacets(@Param("query") String query, @Param("from") Date from, @Param("to") Date to);
+
+    // Ignores the date range, so that the other months can still be offered.
+    @Query(value = "select date_format(s.date, '%Y-%m') as value, date_format(s.date, '%Y-%m') as label, count(*) as count "
+            + "from SESSIONS s "
+            + "where " + MATCHES_QUERY + " "
+            + "and (:teacherId is null or s.teacher_id = :teacherId) "
+            + "group by date_format(s.date, '%Y-%m') "
+            + "order by date_format(s.date, '%Y-%m')", nativeQuery = true)
+    List<SessionSearchFacet> searchMonthFacets(@Param("query") String query, @Param("teacherId") Long teacherId);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    @Query("select count(s) as count, max(s.updatedAt) as lastModified, sum(s.participantCount) as participantTotal "
+            + "from Session s")
+    SessionListVersion findListVersion();
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select s.id as id, s.name as name, s.date as date, s.description as description, t.id as teacherId, "
+            + "s.capacity as capacity, s.participantCount as participantCount, s.createdAt as createdAt, s.updatedAt as updatedAt, u.id as userId "
+            + "from Session s left join s.teacher t left join s.users u order by s.id")
+    Stream<SessionParticipantRow> streamAllWithParticipants();
+
+    // Read from PARTICIPATE alone: its primary key covers the query, and only enrolment writes invalidate the cached result.
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    @Query("select p.sessionId as sessionId, p.userId as userId from Participation p")
+    List<SessionParticipant> findAllParticipants();
+
+    @Query("select p.sessionId as sessionId, p.userId as userId from Participation p where p.sessionId in :sessionIds")
+    List<SessionParticipant> findParticipants(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Query("select case when count(p) > 0 then true else false end "
+            + "from Participation p where p.sessionId = :sessionId and p.userId = :userId")
+    boolean isParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Query("select case when count(s) > 0 then true else false end "
+            + "from Session s where s.id = :id and (s.capacity is null or s.participantCount < s.capacity)")
+    boolean hasFreeSeat(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "PARTICIPATE"))
+    @Query(value = "insert into PARTICIPATE (session_id, user_id) values (:sessionId, :userId)", nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "PARTICIPATE"))
+    @Query(value = "delete from PARTICIPATE where session_id = :sessionId and user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "SESSIONS"))
+    @Query(value = "update SESSIONS set participant_count = participant_count + 1, updated_at = current_timestamp(3) "
+            + "where id = :id and (capacity is null or participant_count < capacity)", nativeQuery = true)
+    int reserveSeat(@Param("id") Long id);
+
+    // Locked in id order so that concurrent batches cannot deadlock on each other.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s.id as id, s.capacity as capacity, s.participantCount as participantCount "
+            + "from Session s where s.id in :ids order by s.id")
+    List<SessionSeats> lockSeats(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "SESSIONS"))
+    @Query(value = "update SESSIONS set participant_count = participant_count + :count, updated_at = current_timestamp(3) "
+            + "where id = :id", nativeQuery = true)
+    int reserveSeats(@Param("id") Long id, @Param("count") int count);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "SESSIONS"))
+    @Query(value = "update SESSIONS set participant_count = participant_count - 1, updated_at = current_timestamp(3) "
+            + "where id = :id and participant_count > 0", nativeQuery = true)
+    int releaseSeat(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "SESSIONS"))
+    @Query(value = "update SESSIONS set updated_at = current_timestamp(3) where id = :id", nativeQuery = true)
+    int touch(@Param("id") Long id);
 }
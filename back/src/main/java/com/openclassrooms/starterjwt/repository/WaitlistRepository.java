@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    // A locking read sees the latest committed queue, so a concurrent promotion blocks here and then moves on to
+    // the next entry instead of retrying the one the other transaction already removed.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<WaitlistEntry> findFirstBySessionIdOrderByIdAsc(Long sessionId);
+
+    Optional<WaitlistEntry> findBySessionIdAndUserId(Long sessionId, Long userId);
+
+    List<WaitlistEntry> findBySessionIdInAndUserIdIn(Collection<Long> sessionIds, Collection<Long> userIds);
+
+    @Query("select count(w) from WaitlistEntry w where w.sessionId = :sessionId and w.id <= :id")
+    long countPosition(@Param("sessionId") Long sessionId, @Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.id = :id")
+    int removeEntry(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.sessionId = :sessionId and w.userId = :userId")
+    int removeEntry(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.sessionId = :sessionId")
+    int removeAll(@Param("sessionId") Long sessionId);
+}
@@ -0,0 +1,5 @@
+package com.openclassrooms.starterjwt.repository.projection;
+
+public interface SessionListVersion extends ListVersion {
+    Long getParticipantTotal();
+}
@@ -0,0 +1,5 @@
+package com.openclassrooms.starterjwt.repository.projection;
+
+public interface SessionParticipantRow extends SessionSummary {
+    Long getUserId();
+}
@@ -0,0 +1,9 @@
+package com.openclassrooms.starterjwt.repository.projection;
+
+public interface SessionSearchFacet {
+    String getValue();
+
+    String getLabel();
+
+    Long getCount();
+}
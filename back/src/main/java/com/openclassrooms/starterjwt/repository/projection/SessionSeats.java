@@ -0,0 +1,9 @@
+package com.openclassrooms.starterjwt.repository.projection;
+
+public interface SessionSeats {
+    Long getId();
+
+    Integer getCapacity();
+
+    Integer getParticipantCount();
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.repository.projection;
+
+import java.util.Date;
+
+public interface SessionSlot {
+    Long getId();
+
+    String getName();
+
+    Date getDate();
+
+    Long getTeacherId();
+
+    Integer getCapacity();
+
+    Integer getParticipantCount();
+}
@@ -0,0 +1,50 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class TimedPasswordEncoder implements PasswordEncoder {
+  private static final String METRIC = "password.hash";
+
+  private final PasswordEncoder delegate;
+
+  private final String encodeAlgorithm;
+
+  private final String legacyAlgorithm;
+
+  private final MeterRegistry meterRegistry;
+
+  public TimedPasswordEncoder(PasswordEncoder delegate, String encodeAlgorithm, String legacyAlgorithm,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.encodeAlgorithm = encodeAlgorithm;
+    this.legacyAlgorithm = legacyAlgorithm;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return meterRegistry.timer(METRIC, "operation", "encode", "algorithm", encodeAlgorithm)
+        .record(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    Boolean matches = meterRegistry.timer(METRIC, "operation", "matches", "algorithm", algorithmOf(encodedPassword))
+        .record(() -> delegate.matches(rawPassword, encodedPassword));
+    return Boolean.TRUE.equals(matches);
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private String algorithmOf(String encodedPassword) {
+    if (encodedPassword != null && encodedPassword.startsWith("{") && encodedPassword.indexOf('}') > 0) {
+      return encodedPassword.substring(1, encodedPassword.indexOf('}'));
+    }
+    return legacyAlgorithm;
+  }
+}
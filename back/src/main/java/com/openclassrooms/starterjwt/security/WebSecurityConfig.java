@@ -1,6 +1,10 @@
 package com.openclassrooms.starterjwt.security;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,13 +15,17 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(
@@ -31,6 +39,18 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${oc.app.passwordEncoder:bcrypt}")
+  private String passwordEncoderId;
+
+  @Value("${oc.app.bcryptStrength:10}")
+  private int bcryptStrength;
+
+  @Value("${oc.app.pbkdf2Iterations:185000}")
+  private int pbkdf2Iterations;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -49,7 +69,18 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+    Pbkdf2PasswordEncoder pbkdf2 = new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations, 256);
+    pbkdf2.setAlgorithm(Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put("bcrypt", bcrypt);
+    encoders.put("pbkdf2", pbkdf2);
+
+    DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordEncoderId, encoders);
+    // Hashes stored before the {id} prefix was introduced are plain bcrypt; they are rehashed on the next login.
+    passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return new TimedPasswordEncoder(passwordEncoder, passwordEncoderId, "bcrypt", meterRegistry);
   }
 
   @Override
@@ -58,6 +89,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
       .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
       .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
       .authorizeRequests().antMatchers("/api/auth/**").permitAll()
+      .antMatchers("/actuator/health", "/actuator/prometheus").permitAll()
       .antMatchers("/api/**").authenticated()
       .anyRequest().authenticated();
 
@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -19,6 +20,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
@@ -26,6 +30,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired
+  private JwtTokenCache tokenCache;
+
+  @Autowired
+  private JwtRevocationList revocationList;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
   @Override
@@ -33,10 +46,34 @@ public class AuthTokenFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+      long start = System.nanoTime();
+      UserDetails userDetails = jwt != null ? tokenCache.get(jwt) : null;
+      String outcome = "cached";
+
+      if (userDetails == null && jwt != null) {
+        JwtValidationResult result = jwtUtils.parseJwtToken(jwt);
+
+        if (!result.isValid()) {
+          outcome = result.getFailure().name().toLowerCase();
+        } else if (revocationList.isRevoked(result.getClaims())) {
+          outcome = "revoked";
+        } else {
+          Claims claims = result.getClaims();
+
+          userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+          if (userDetails == null) {
+            userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+          }
+          tokenCache.put(jwt, claims.getSubject(), userDetails, claims.getExpiration());
+          outcome = "valid";
+        }
+      }
+
+      if (jwt != null) {
+        meterRegistry.timer("jwt.validation", "outcome", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      if (userDetails != null) {
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.jsonwebtoken.Claims;
+
+// Held in memory by this node only and lost on restart, as is the JwtTokenCache eviction that goes with it.
+// oc.app.jwtStatelessPrincipal=true is therefore opt-in, and only safe when the application runs as a single instance.
+@Component
+public class JwtRevocationList {
+  private final Cache<Long, Long> revokedUsers;
+
+  public JwtRevocationList(@Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs) {
+    this.revokedUsers = Caffeine.newBuilder()
+        .expireAfterWrite(jwtExpirationMs, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  public void revoke(Long userId) {
+    if (userId != null) {
+      revokedUsers.put(userId, System.currentTimeMillis());
+    }
+  }
+
+  public boolean isRevoked(Claims claims) {
+    Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+    if (userId == null) {
+      return false;
+    }
+
+    Long revokedAt = revokedUsers.getIfPresent(userId);
+    if (revokedAt == null) {
+      return false;
+    }
+
+    Date issuedAt = claims.getIssuedAt();
+    return issuedAt == null || issuedAt.getTime() <= revokedAt;
+  }
+}
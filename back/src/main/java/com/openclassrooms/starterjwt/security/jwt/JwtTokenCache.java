@@ -0,0 +1,92 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+@Component
+public class JwtTokenCache {
+  private final Cache<String, Entry> cache;
+
+  private final long ttlMs;
+
+  public JwtTokenCache(@Value("${oc.app.jwtCacheMaxSize:10000}") long maxSize,
+      @Value("${oc.app.jwtCacheTtlMs:300000}") long ttlMs) {
+    this.ttlMs = ttlMs;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new Expiry<String, Entry>() {
+          @Override
+          public long expireAfterCreate(String token, Entry entry, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAt - System.currentTimeMillis()));
+          }
+
+          @Override
+          public long expireAfterUpdate(String token, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, entry, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String token, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
+  public UserDetails get(String token) {
+    Entry entry = cache.getIfPresent(token);
+    if (entry == null) {
+      return null;
+    }
+
+    if (entry.expiresAt <= System.currentTimeMillis()) {
+      cache.invalidate(token);
+      return null;
+    }
+
+    return entry.userDetails;
+  }
+
+  public void put(String token, String subject, UserDetails userDetails, Date expiration) {
+    long expiresAt = System.currentTimeMillis() + ttlMs;
+    if (expiration != null) {
+      expiresAt = Math.min(expiresAt, expiration.getTime());
+    }
+
+    if (expiresAt > System.currentTimeMillis()) {
+      cache.put(token, new Entry(subject, userDetails, expiresAt));
+    }
+  }
+
+  public void evictUser(String username) {
+    cache.asMap().values().removeIf(entry -> Objects.equals(entry.subject, username));
+  }
+
+  public long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+
+  private static final class Entry {
+    private final String subject;
+
+    private final UserDetails userDetails;
+
+    private final long expiresAt;
+
+    private Entry(String subject, UserDetails userDetails, long expiresAt) {
+      this.subject = subject;
+      this.userDetails = userDetails;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
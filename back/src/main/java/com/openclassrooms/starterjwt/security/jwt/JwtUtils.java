@@ -1,20 +1,33 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.security.Key;
 import java.util.Date;
 
+import javax.crypto.spec.SecretKeySpec;
+
 import com.google.gson.Gson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class JwtUtils {
+  public static final String CLAIM_USER_ID = "id";
+
+  public static final String CLAIM_FIRST_NAME = "firstName";
+
+  public static final String CLAIM_LAST_NAME = "lastName";
+
+  public static final String CLAIM_ADMIN = "admin";
+
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
   private final Gson gson = new Gson();
@@ -25,42 +38,98 @@ public class JwtUtils {
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  @Value("${oc.app.jwtStatelessPrincipal:false}")
+  private boolean statelessPrincipal;
+
+  private volatile Key signingKey;
+
+  private volatile JwtParser jwtParser;
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
     return Jwts.builder()
         .setSubject((userPrincipal.getUsername()))
+        .claim(CLAIM_USER_ID, userPrincipal.getId())
+        .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+        .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+        .claim(CLAIM_ADMIN, userPrincipal.getAdmin())
         .setIssuedAt(new Date())
         .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .signWith(SignatureAlgorithm.HS512, getSigningKey())
         .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return getParser().parseClaimsJws(token).getBody().getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseJwtToken(authToken).isValid();
+  }
+
+  public JwtValidationResult parseJwtToken(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return JwtValidationResult.valid(getParser().parseClaimsJws(authToken).getBody());
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
+      return JwtValidationResult.invalid(JwtValidationResult.Failure.INVALID_SIGNATURE);
     } catch (MalformedJwtException e) {
       logger.error("Invalid JWT token: {}", e.getMessage());
+      return JwtValidationResult.invalid(JwtValidationResult.Failure.MALFORMED);
     } catch (ExpiredJwtException e) {
       logger.error("JWT token is expired: {}", e.getMessage());
+      return JwtValidationResult.invalid(JwtValidationResult.Failure.EXPIRED);
     } catch (UnsupportedJwtException e) {
       logger.error("JWT token is unsupported: {}", e.getMessage());
+      return JwtValidationResult.invalid(JwtValidationResult.Failure.UNSUPPORTED);
     } catch (IllegalArgumentException e) {
       logger.error("JWT claims string is empty: {}", e.getMessage());
+      return JwtValidationResult.invalid(JwtValidationResult.Failure.EMPTY);
     }
+  }
 
-    return false;
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    if (!statelessPrincipal) {
+      return null;
+    }
+
+    Long id = claims.get(CLAIM_USER_ID, Long.class);
+    if (id == null) {
+      return null;
+    }
+
+    return UserDetailsImpl
+            .builder()
+            .id(id)
+            .username(claims.getSubject())
+            .firstName(claims.get(CLAIM_FIRST_NAME, String.class))
+            .lastName(claims.get(CLAIM_LAST_NAME, String.class))
+            .admin(claims.get(CLAIM_ADMIN, Boolean.class))
+            .build();
   }
 
   public String toJson(Object obj) {
     return gson.toJson(obj);
   }
+
+  private Key getSigningKey() {
+    Key key = signingKey;
+    if (key == null) {
+      Assert.hasText(jwtSecret, "signing key cannot be null or empty.");
+      key = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+      signingKey = key;
+    }
+    return key;
+  }
+
+  private JwtParser getParser() {
+    JwtParser parser = jwtParser;
+    if (parser == null) {
+      parser = Jwts.parser().setSigningKey(getSigningKey());
+      jwtParser = parser;
+    }
+    return parser;
+  }
 }
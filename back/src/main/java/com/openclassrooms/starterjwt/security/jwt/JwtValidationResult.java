@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+@Getter
+public class JwtValidationResult {
+  public enum Failure {
+    INVALID_SIGNATURE,
+    MALFORMED,
+    EXPIRED,
+    UNSUPPORTED,
+    EMPTY
+  }
+
+  private final Claims claims;
+
+  private final Failure failure;
+
+  private JwtValidationResult(Claims claims, Failure failure) {
+    this.claims = claims;
+    this.failure = failure;
+  }
+
+  public static JwtValidationResult valid(Claims claims) {
+    return new JwtValidationResult(claims, null);
+  }
+
+  public static JwtValidationResult invalid(Failure failure) {
+    return new JwtValidationResult(null, failure);
+  }
+
+  public boolean isValid() {
+    return claims != null;
+  }
+}
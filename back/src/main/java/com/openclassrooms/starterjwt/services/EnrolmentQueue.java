@@ -0,0 +1,217 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.config.SqlStatementListener;
+import com.openclassrooms.starterjwt.dto.EnrolmentDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Accepts enrolments without touching the database and writes them in batches from a single thread.
+@Service
+public class EnrolmentQueue {
+    private static final Logger logger = LoggerFactory.getLogger(EnrolmentQueue.class);
+
+    private final EnrolmentWriter enrolmentWriter;
+
+    private final SqlStatementListener sqlStatementListener;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final long flushNanos;
+
+    private final BlockingQueue<EnrolmentDto> queue;
+
+    private final Cache<String, EnrolmentDto> enrolments;
+
+    private final Timer batchTimer;
+
+    private final DistributionSummary batchSizes;
+
+    private final DistributionSummary batchStatements;
+
+    private volatile boolean running;
+
+    private volatile boolean stopped;
+
+    private Thread writer;
+
+    public EnrolmentQueue(EnrolmentWriter enrolmentWriter,
+                          SqlStatementListener sqlStatementListener,
+                          MeterRegistry meterRegistry,
+                          @Value("${oc.app.asyncEnrolment:false}") boolean enabled,
+                          @Value("${oc.app.enrolmentBatchSize:50}") int batchSize,
+                          @Value("${oc.app.enrolmentFlushMs:20}") long flushMs,
+                          @Value("${oc.app.enrolmentQueueCapacity:10000}") int queueCapacity,
+                          @Value("${oc.app.enrolmentStatusTtlMs:3600000}") long statusTtlMs) {
+        this.enrolmentWriter = enrolmentWriter;
+        this.sqlStatementListener = sqlStatementListener;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.enrolments = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+        this.batchTimer = Timer.builder("enrolment.batch").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("enrolment.batch.size").register(meterRegistry);
+        this.batchStatements = DistributionSummary.builder("enrolment.batch.sql.statements").register(meterRegistry);
+        meterRegistry.gauge("enrolment.queue.size", this.queue, BlockingQueue::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        writer = new Thread(this::run, "enrolment-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public EnrolmentDto submit(String key, Long sessionId, Long userId) {
+        if (stopped) {
+            throw new RejectedExecutionException("Enrolment queue is stopped");
+        }
+
+        EnrolmentDto pending = new EnrolmentDto(key, sessionId, userId, EnrolmentDto.Status.PENDING);
+
+        // Retries with the same key get the current status back instead of a second enrolment while it is pending or
+        // done. An attempt that ended without enrolling (full, already enrolled, failed...) is queued again, since the
+        // seats or the user's enrolments may have changed since.
+        EnrolmentDto existing = enrolments.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            if (!existing.getSessionId().equals(sessionId) || !existing.getUserId().equals(userId)) {
+                throw new BadRequestException("Idempotency key already used for another enrolment");
+            }
+            if (existing.getStatus() == EnrolmentDto.Status.PENDING
+                    || existing.getStatus() == EnrolmentDto.Status.ENROLLED
+                    || !enrolments.asMap().replace(key, existing, pending)) {
+                return enrolments.asMap().getOrDefault(key, existing);
+            }
+        }
+
+        if (!queue.offer(pending)) {
+            enrolments.invalidate(key);
+            throw new RejectedExecutionException("Enrolment queue is full");
+        }
+
+        // The writer may have drained the queue for the last time between the check above and the offer.
+        if (stopped && queue.remove(pending)) {
+            enrolments.invalidate(key);
+            throw new RejectedExecutionException("Enrolment queue is stopped");
+        }
+
+        return pending;
+    }
+
+    public EnrolmentDto getStatus(String key) {
+        return enrolments.getIfPresent(key);
+    }
+
+    private void run() {
+        List<EnrolmentDto> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                EnrolmentDto first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                fill(batch);
+
+                // Batches serve many requests at once, so their statements are counted per batch instead.
+                sqlStatementListener.beginRequest();
+                try {
+                    flush(batch);
+                } finally {
+                    batchStatements.record(sqlStatementListener.endRequest().getCount());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Waits at most flushNanos for the batch to fill up, so a lone enrolment is not held back for long.
+    private void fill(List<EnrolmentDto> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+
+            EnrolmentDto next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    void flush(List<EnrolmentDto> batch) {
+        batchSizes.record(batch.size());
+        try {
+            store(batch, batchTimer.recordCallable(() -> enrolmentWriter.write(batch)));
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                logger.error("Could not write enrolment {}", batch.get(0).getKey(), e);
+                enrolments.put(batch.get(0).getKey(), batch.get(0).withStatus(EnrolmentDto.Status.FAILED));
+                return;
+            }
+
+            // Retried one by one, so that a single bad row does not fail the enrolments batched with it.
+            logger.warn("Could not write a batch of {} enrolments, retrying them one by one", batch.size(), e);
+            for (EnrolmentDto enrolment : batch) {
+                flush(Collections.singletonList(enrolment));
+            }
+        }
+    }
+
+    private void store(List<EnrolmentDto> batch, Map<String, EnrolmentDto.Status> statuses) {
+        for (EnrolmentDto enrolment : batch) {
+            enrolments.put(enrolment.getKey(), enrolment.withStatus(statuses.get(enrolment.getKey())));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.EnrolmentDto;
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.repository.projection.SessionSeats;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class EnrolmentWriter {
+    private final SessionRepository sessionRepository;
+
+    private final UserRepository userRepository;
+
+    private final ParticipationRepository participationRepository;
+
+    private final WaitlistRepository waitlistRepository;
+
+    private final EntityManager entityManager;
+
+    public EnrolmentWriter(SessionRepository sessionRepository, UserRepository userRepository,
+                           ParticipationRepository participationRepository, WaitlistRepository waitlistRepository,
+                           EntityManager entityManager) {
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.participationRepository = participationRepository;
+        this.waitlistRepository = waitlistRepository;
+        this.entityManager = entityManager;
+    }
+
+    // Applies a batch of enrolments in one transaction: a fixed number of lookups, one batched insert into
+    // PARTICIPATE and one seat update per session, whatever the batch size.
+    @Transactional
+    public Map<String, EnrolmentDto.Status> write(List<EnrolmentDto> enrolments) {
+        Set<Long> sessionIds = enrolments.stream().map(EnrolmentDto::getSessionId).collect(Collectors.toCollection(TreeSet::new));
+        Set<Long> userIds = enrolments.stream().map(EnrolmentDto::getUserId).collect(Collectors.toSet());
+
+        Map<Long, SessionSeats> seats = this.sessionRepository.lockSeats(sessionIds).stream()
+                .collect(Collectors.toMap(SessionSeats::getId, Function.identity()));
+        Set<Long> users = new HashSet<>(this.userRepository.findExistingIds(userIds));
+        Set<Participation> participations = new HashSet<>(this.participationRepository.findBySessionIdInAndUserIdIn(sessionIds, userIds));
+
+        Map<String, EnrolmentDto.Status> statuses = new HashMap<>();
+        Set<Participation> enrolled = new HashSet<>();
+        Map<Long, Integer> reserved = new TreeMap<>();
+        for (EnrolmentDto enrolment : enrolments) {
+            SessionSeats session = seats.get(enrolment.getSessionId());
+            Participation participation = new Participation(enrolment.getSessionId(), enrolment.getUserId());
+
+            if (session == null || !users.contains(enrolment.getUserId())) {
+                statuses.put(enrolment.getKey(), EnrolmentDto.Status.NOT_FOUND);
+            } else if (participations.contains(participation)) {
+                statuses.put(enrolment.getKey(), EnrolmentDto.Status.ALREADY_ENROLLED);
+            } else if (session.getCapacity() != null
+                    && session.getParticipantCount() + reserved.getOrDefault(session.getId(), 0) >= session.getCapacity()) {
+                statuses.put(enrolment.getKey(), EnrolmentDto.Status.FULL);
+            } else {
+                this.entityManager.persist(participation);
+                participations.add(participation);
+                enrolled.add(participation);
+                reserved.merge(session.getId(), 1, Integer::sum);
+                statuses.put(enrolment.getKey(), EnrolmentDto.Status.ENROLLED);
+            }
+        }
+
+        reserved.forEach(this.sessionRepository::reserveSeats);
+        removeFromWaitlists(enrolled, reserved.keySet());
+
+        return statuses;
+    }
+
+    private void removeFromWaitlists(Set<Participation> enrolled, Set<Long> sessionIds) {
+        if (enrolled.isEmpty()) {
+            return;
+        }
+
+        Set<Long> userIds = enrolled.stream().map(Participation::getUserId).collect(Collectors.toSet());
+        List<Long> entries = this.waitlistRepository.findBySessionIdInAndUserIdIn(sessionIds, userIds).stream()
+                .filter(entry -> enrolled.contains(new Participation(entry.getSessionId(), entry.getUserId())))
+                .map(WaitlistEntry::getId)
+                .collect(Collectors.toList());
+
+        if (!entries.isEmpty()) {
+            this.waitlistRepository.deleteAllByIdInBatch(entries);
+        }
+    }
+}
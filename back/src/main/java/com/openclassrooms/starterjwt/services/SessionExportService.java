@@ -0,0 +1,200 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Streams attendance straight from a forward-only cursor to the response, one row at a time,
+// so memory stays flat whatever the number of sessions and participants.
+@Service
+public class SessionExportService {
+    private static final String SELECT_ATTENDANCE = "select s.id, s.name, s.date, t.id, t.first_name, t.last_name, "
+            + "u.id, u.email, u.first_name, u.last_name "
+            + "from SESSIONS s "
+            + "left join TEACHERS t on t.id = s.teacher_id "
+            + "left join PARTICIPATE p on p.session_id = s.id "
+            + "left join USERS u on u.id = p.user_id";
+
+    private static final String CSV_HEADER = "session_id,session_name,session_date,teacher_id,teacher_first_name,"
+            + "teacher_last_name,user_id,user_email,user_first_name,user_last_name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Gson gson;
+
+    private final int fetchSize;
+
+    public SessionExportService(JdbcTemplate jdbcTemplate, Gson gson,
+                                @Value("${oc.app.sessionExportFetchSize:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gson = gson;
+        this.fetchSize = fetchSize;
+    }
+
+    public void exportNdjson(Date from, Date to, Writer out) throws IOException {
+        JsonWriter json = this.gson.newJsonWriter(out);
+        // One top-level object per line
+        json.setLenient(true);
+
+        NdjsonHandler handler = new NdjsonHandler(out, json);
+        query(from, to, handler);
+        handler.finish();
+    }
+
+    public void exportCsv(Date from, Date to, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write("\r\n");
+        query(from, to, rs -> {
+            try {
+                out.write(csv(rs.getLong(1)) + ',' + csv(rs.getString(2)) + ',' + csv(formatDate(rs.getTimestamp(3))) + ','
+                        + csv(getLong(rs, 4)) + ',' + csv(rs.getString(5)) + ',' + csv(rs.getString(6)) + ','
+                        + csv(getLong(rs, 7)) + ',' + csv(rs.getString(8)) + ',' + csv(rs.getString(9)) + ','
+                        + csv(rs.getString(10)) + "\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    private void query(Date from, Date to, RowCallbackHandler handler) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_ATTENDANCE);
+        List<Object> parameters = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(parameters.isEmpty() ? " where" : " and").append(" s.date >= ?");
+            parameters.add(new Timestamp(from.getTime()));
+        }
+        if (to != null) {
+            sql.append(parameters.isEmpty() ? " where" : " and").append(" s.date < ?");
+            parameters.add(new Timestamp(to.getTime()));
+        }
+        sql.append(" order by s.date, s.id, u.id");
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // With useCursorFetch=true this makes MySQL send rows in chunks instead of the whole result at once.
+            ps.setFetchSize(this.fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+            return ps;
+        };
+
+        try {
+            this.jdbcTemplate.query(statement, handler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private String formatDate(Date date) {
+        return date != null ? this.gson.toJsonTree(date).getAsString() : null;
+    }
+
+    private static Long getLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+        // Spreadsheets evaluate cells starting with these characters as formulas.
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    // Rows arrive ordered by session, so each session is opened on its first row and closed when the next one starts.
+    private final class NdjsonHandler implements RowCallbackHandler {
+        private final Writer out;
+
+        private final JsonWriter json;
+
+        private Long sessionId;
+
+        private NdjsonHandler(Writer out, JsonWriter json) {
+            this.out = out;
+            this.json = json;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long id = rs.getLong(1);
+                if (this.sessionId == null || this.sessionId != id) {
+                    endSession();
+                    beginSession(rs, id);
+                }
+
+                Long userId = getLong(rs, 7);
+                if (userId != null) {
+                    this.json.beginObject();
+                    this.json.name("id").value(userId);
+                    this.json.name("email").value(rs.getString(8));
+                    this.json.name("firstName").value(rs.getString(9));
+                    this.json.name("lastName").value(rs.getString(10));
+                    this.json.endObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void beginSession(ResultSet rs, long id) throws SQLException, IOException {
+            this.sessionId = id;
+            this.json.beginObject();
+            this.json.name("id").value(id);
+            this.json.name("name").value(rs.getString(2));
+            this.json.name("date").value(formatDate(rs.getTimestamp(3)));
+
+            Long teacherId = getLong(rs, 4);
+            if (teacherId != null) {
+                this.json.name("teacher").beginObject();
+                this.json.name("id").value(teacherId);
+                this.json.name("firstName").value(rs.getString(5));
+                this.json.name("lastName").value(rs.getString(6));
+                this.json.endObject();
+            }
+
+            this.json.name("attendees").beginArray();
+        }
+
+        private void endSession() throws IOException {
+            if (this.sessionId == null) {
+                return;
+            }
+
+            this.json.endArray();
+            this.json.endObject();
+            this.out.write('\n');
+        }
+
+        private void finish() throws IOException {
+            endSession();
+            this.json.flush();
+        }
+    }
+}
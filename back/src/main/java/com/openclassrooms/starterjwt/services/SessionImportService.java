@@ -0,0 +1,259 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionImportReportDto;
+import com.openclassrooms.starterjwt.dto.SessionImportRowDto;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class SessionImportService {
+    private static final Logger logger = LoggerFactory.getLogger(SessionImportService.class);
+
+    private final SessionImportWriter sessionImportWriter;
+
+    private final TeacherRepository teacherRepository;
+
+    private final UserRepository userRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Validator validator;
+
+    private final Gson gson;
+
+    private final int batchSize;
+
+    public SessionImportService(SessionImportWriter sessionImportWriter,
+                                TeacherRepository teacherRepository,
+                                UserRepository userRepository,
+                                EntityManagerFactory entityManagerFactory,
+                                Validator validator,
+                                Gson gson,
+                                @Value("${oc.app.sessionImportBatchSize:500}") int batchSize) {
+        this.sessionImportWriter = sessionImportWriter;
+        this.teacherRepository = teacherRepository;
+        this.userRepository = userRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.validator = validator;
+        this.gson = gson;
+        this.batchSize = batchSize;
+    }
+
+    // Reads either a JSON array or one session per line, and commits every batchSize valid rows,
+    // so rows already reported as CREATED stay created even if a later batch fails.
+    public SessionImportReportDto importSessions(Reader body, boolean ndjson) throws IOException {
+        List<SessionImportRowDto> report = new ArrayList<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        RowReader reader = ndjson ? new NdjsonRowReader(body) : new ArrayRowReader(body);
+
+        int row = 0;
+        while (true) {
+            SessionDto session;
+            try {
+                session = reader.next();
+            } catch (JsonParseException | IllegalStateException | MalformedJsonException | EOFException e) {
+                report.add(new SessionImportRowDto(++row, SessionImportRowDto.Status.INVALID, null,
+                        Collections.singletonList("Malformed JSON: " + (e.getCause() != null ? e.getCause() : e).getMessage())));
+                if (reader.canRecover()) {
+                    continue;
+                }
+                break;
+            }
+
+            if (session == null) {
+                break;
+            }
+
+            row++;
+            List<String> errors = validate(session);
+            if (!errors.isEmpty()) {
+                report.add(new SessionImportRowDto(row, SessionImportRowDto.Status.INVALID, null, errors));
+                continue;
+            }
+
+            batch.add(new ImportRow(row, session));
+            if (batch.size() >= batchSize) {
+                write(batch, report);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            write(batch, report);
+        }
+
+        report.sort(Comparator.comparingInt(SessionImportRowDto::getRow));
+        int created = (int) report.stream().filter(r -> r.getStatus() == SessionImportRowDto.Status.CREATED).count();
+        return new SessionImportReportDto(created, report.size() - created, report);
+    }
+
+    private List<String> validate(SessionDto session) {
+        List<String> errors = this.validator.validate(session).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<Long> users = Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream()
+                .distinct()
+                .collect(Collectors.toList());
+        if (users.contains(null)) {
+            errors.add("users: must not contain null");
+        } else if (session.getCapacity() != null && users.size() > session.getCapacity()) {
+            errors.add("Capacity is below the number of participants");
+        }
+        session.setUsers(users);
+
+        return errors;
+    }
+
+    private void write(List<ImportRow> batch, List<SessionImportRowDto> report) {
+        Set<Long> teacherIds = new HashSet<>(this.teacherRepository.findExistingIds(
+                batch.stream().map(r -> r.session.getTeacher_id()).collect(Collectors.toSet())));
+        Set<Long> requestedUserIds = batch.stream().flatMap(r -> r.session.getUsers().stream()).collect(Collectors.toSet());
+        Set<Long> userIds = requestedUserIds.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(this.userRepository.findExistingIds(requestedUserIds));
+
+        List<ImportRow> valid = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            List<String> errors = new ArrayList<>();
+            if (!teacherIds.contains(row.session.getTeacher_id())) {
+                errors.add("Unknown teacher id: " + row.session.getTeacher_id());
+            }
+            List<Long> missingUsers = row.session.getUsers().stream()
+                    .filter(id -> !userIds.contains(id))
+                    .collect(Collectors.toList());
+            if (!missingUsers.isEmpty()) {
+                errors.add("Unknown user ids: " + missingUsers);
+            }
+
+            if (errors.isEmpty()) {
+                valid.add(row);
+            } else {
+                report.add(new SessionImportRowDto(row.row, SessionImportRowDto.Status.INVALID, null, errors));
+            }
+        }
+
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Long> ids = this.sessionImportWriter.insert(valid.stream().map(r -> r.session).collect(Collectors.toList()));
+            for (int i = 0; i < valid.size(); i++) {
+                report.add(new SessionImportRowDto(valid.get(i).row, SessionImportRowDto.Status.CREATED, ids.get(i), Collections.emptyList()));
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not import a batch of {} sessions", valid.size(), e);
+            for (ImportRow row : valid) {
+                report.add(new SessionImportRowDto(row.row, SessionImportRowDto.Status.FAILED, null,
+                        Collections.singletonList("Batch failed: " + e.getMostSpecificCause().getMessage())));
+            }
+        } finally {
+            // The rows were written behind Hibernate's back, so no cached list or count query may outlive them.
+            this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        }
+    }
+
+    private static final class ImportRow {
+        private final int row;
+
+        private final SessionDto session;
+
+        private ImportRow(int row, SessionDto session) {
+            this.row = row;
+            this.session = session;
+        }
+    }
+
+    private interface RowReader {
+        SessionDto next() throws IOException;
+
+        boolean canRecover();
+    }
+
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+
+        private NdjsonRowReader(Reader body) {
+            this.reader = body instanceof BufferedReader ? (BufferedReader) body : new BufferedReader(body);
+        }
+
+        @Override
+        public SessionDto next() throws IOException {
+            String line;
+            do {
+                line = this.reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.trim().isEmpty());
+
+            SessionDto session = gson.fromJson(line, SessionDto.class);
+            if (session == null) {
+                throw new JsonParseException("Expected a session object");
+            }
+            return session;
+        }
+
+        // Every line is parsed on its own, so a malformed line does not affect the next ones.
+        @Override
+        public boolean canRecover() {
+            return true;
+        }
+    }
+
+    private final class ArrayRowReader implements RowReader {
+        private final JsonReader reader;
+
+        private boolean started;
+
+        private ArrayRowReader(Reader body) {
+            this.reader = gson.newJsonReader(body);
+        }
+
+        @Override
+        public SessionDto next() throws IOException {
+            if (!this.started) {
+                this.reader.beginArray();
+                this.started = true;
+            }
+
+            if (!this.reader.hasNext()) {
+                this.reader.endArray();
+                return null;
+            }
+
+            if (this.reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JsonParseException("Expected a session object at " + this.reader.getPath());
+            }
+            return gson.fromJson(this.reader, SessionDto.class);
+        }
+
+        @Override
+        public boolean canRecover() {
+            return false;
+        }
+    }
+}
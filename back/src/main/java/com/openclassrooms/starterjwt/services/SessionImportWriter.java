@@ -0,0 +1,82 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// SESSIONS ids are IDENTITY columns, which Hibernate never batches, so imports go through plain JDBC batches.
+@Service
+public class SessionImportWriter {
+    private static final String INSERT_SESSION = "insert into SESSIONS "
+            + "(name, date, description, teacher_id, capacity, participant_count, created_at, updated_at) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PARTICIPANT = "insert into PARTICIPATE (session_id, user_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessionImportWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public List<Long> insert(List<SessionDto> sessions) {
+        List<Long> ids = this.jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SESSION, Statement.RETURN_GENERATED_KEYS)) {
+                for (SessionDto session : sessions) {
+                    statement.setString(1, session.getName());
+                    statement.setTimestamp(2, new Timestamp(session.getDate().getTime()));
+                    statement.setString(3, session.getDescription());
+                    statement.setLong(4, session.getTeacher_id());
+                    if (session.getCapacity() != null) {
+                        statement.setInt(5, session.getCapacity());
+                    } else {
+                        statement.setNull(5, Types.INTEGER);
+                    }
+                    statement.setInt(6, session.getUsers().size());
+                    statement.setTimestamp(7, now);
+                    statement.setTimestamp(8, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> keys = new ArrayList<>(sessions.size());
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    while (generatedKeys.next()) {
+                        keys.add(generatedKeys.getLong(1));
+                    }
+                }
+                return keys;
+            }
+        });
+
+        if (ids == null || ids.size() != sessions.size()) {
+            throw new IncorrectResultSizeDataAccessException("Generated session ids", sessions.size(), ids == null ? 0 : ids.size());
+        }
+
+        List<Object[]> participants = new ArrayList<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            for (Long userId : sessions.get(i).getUsers()) {
+                participants.add(new Object[]{ids.get(i), userId});
+            }
+        }
+        if (!participants.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(INSERT_PARTICIPANT, participants);
+        }
+
+        return ids;
+    }
+}
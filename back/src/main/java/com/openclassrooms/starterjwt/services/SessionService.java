@@ -1,15 +1,39 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionCursor;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.repository.projection.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.projection.SessionListVersion;
+import com.openclassrooms.starterjwt.repository.projection.SessionParticipantRow;
+import com.openclassrooms.starterjwt.repository.projection.SessionSearchFacet;
+import com.openclassrooms.starterjwt.repository.projection.SessionSearchHit;
+import com.openclassrooms.starterjwt.repository.projection.SessionSlot;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SessionService {
@@ -17,16 +41,23 @@ public class SessionService {
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final WaitlistRepository waitlistRepository;
+
+    public SessionService(SessionRepository sessionRepository, UserRepository userRepository,
+                          WaitlistRepository waitlistRepository) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.waitlistRepository = waitlistRepository;
     }
 
     public Session create(Session session) {
+        syncParticipantCount(session);
         return this.sessionRepository.save(session);
     }
 
+    @Transactional
     public void delete(Long id) {
+        this.waitlistRepository.removeAll(id);
         this.sessionRepository.deleteById(id);
     }
 
@@ -34,45 +65,213 @@ public class SessionService {
         return this.sessionRepository.findAll();
     }
 
+    public SessionListVersion getListVersion() {
+        return this.sessionRepository.findListVersion();
+    }
+
+    public List<SessionSummary> findAllSummaries() {
+        return this.sessionRepository.findAllSummaries();
+    }
+
+    public List<SessionSummary> findSummaryPage(Date from, Date to, SessionCursor after, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        if (after == null) {
+            return this.sessionRepository.findSummaryPage(from, to, pageable);
+        }
+
+        return this.sessionRepository.findSummaryPageAfter(from, to, after.getDate(), after.getId(), pageable);
+    }
+
+    public List<SessionSlot> findSlots(Long teacherId, Date from, Date to, Sort.Direction direction, int limit) {
+        Pageable pageable = PageRequest.of(0, limit, Sort.by(direction, "date", "id"));
+        if (teacherId == null) {
+            return this.sessionRepository.findSlots(from, to, pageable);
+        }
+
+        return this.sessionRepository.findTeacherSlots(teacherId, from, to, pageable);
+    }
+
+    // Most relevant first; summaries are loaded for the page only and put back in rank order.
+    public List<SessionSummary> search(String query, Long teacherId, Date from, Date to, int page, int size) {
+        List<Long> ids = this.sessionRepository.search(query, teacherId, from, to, PageRequest.of(page, size)).stream()
+                .map(SessionSearchHit::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, SessionSummary> summaries = this.sessionRepository.findSummaries(ids).stream()
+                .collect(Collectors.toMap(SessionSummary::getId, summary -> summary));
+        return ids.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public List<SessionSearchFacet> searchTeacherFacets(String query, Date from, Date to) {
+        return this.sessionRepository.searchTeacherFacets(query, from, to);
+    }
+
+    public List<SessionSearchFacet> searchMonthFacets(String query, Long teacherId) {
+        return this.sessionRepository.searchMonthFacets(query, teacherId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(BiConsumer<SessionSummary, List<Long>> consumer) {
+        try (Stream<SessionParticipantRow> rows = this.sessionRepository.streamAllWithParticipants()) {
+            Iterator<SessionParticipantRow> iterator = rows.iterator();
+            SessionParticipantRow current = null;
+            List<Long> users = new ArrayList<>();
+
+            while (iterator.hasNext()) {
+                SessionParticipantRow row = iterator.next();
+                if (current != null && !current.getId().equals(row.getId())) {
+                    consumer.accept(current, users);
+                    users = new ArrayList<>();
+                }
+
+                current = row;
+                if (row.getUserId() != null) {
+                    users.add(row.getUserId());
+                }
+            }
+
+            if (current != null) {
+                consumer.accept(current, users);
+            }
+        }
+    }
+
+    public Map<Long, List<Long>> findParticipantIds() {
+        return groupBySession(this.sessionRepository.findAllParticipants());
+    }
+
+    public Map<Long, List<Long>> findParticipantIds(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return groupBySession(this.sessionRepository.findParticipants(sessionIds));
+    }
+
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
     public Session update(Long id, Session session) {
         session.setId(id);
+        syncParticipantCount(session);
         return this.sessionRepository.save(session);
     }
 
+    @Transactional
     public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
+        if (!this.sessionRepository.existsById(id) || !this.userRepository.existsById(userId)) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
+        // Checked before the seat is reserved so that a participant of a full session gets a 400, not a 409.
+        if (this.sessionRepository.isParticipant(id, userId)) {
             throw new BadRequestException();
         }
 
-        session.getUsers().add(user);
+        if (this.sessionRepository.reserveSeat(id) == 0) {
+            throw new SessionFullException();
+        }
 
-        this.sessionRepository.save(session);
+        try {
+            this.sessionRepository.addParticipant(id, userId);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException();
+        }
+
+        this.waitlistRepository.removeEntry(id, userId);
     }
 
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+        if (!this.sessionRepository.existsById(id)) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+        if (this.sessionRepository.removeParticipant(id, userId) == 0) {
             throw new BadRequestException();
         }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+        if (promoteNext(id) == null) {
+            this.sessionRepository.releaseSeat(id);
+        }
+    }
+
+    @Transactional
+    public long joinWaitlist(Long id, Long userId) {
+        if (!this.sessionRepository.existsById(id) || !this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+
+        if (this.sessionRepository.isParticipant(id, userId)) {
+            throw new BadRequestException();
+        }
+
+        if (this.sessionRepository.hasFreeSeat(id)) {
+            throw new BadRequestException("Session has free seats");
+        }
+
+        WaitlistEntry entry;
+        try {
+            entry = this.waitlistRepository.saveAndFlush(WaitlistEntry.builder().sessionId(id).userId(userId).build());
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException();
+        }
+
+        return this.waitlistRepository.countPosition(id, entry.getId());
+    }
+
+    public long getWaitlistPosition(Long id, Long userId) {
+        WaitlistEntry entry = this.waitlistRepository.findBySessionIdAndUserId(id, userId).orElse(null);
+        if (entry == null) {
+            throw new NotFoundException();
+        }
+
+        return this.waitlistRepository.countPosition(id, entry.getId());
+    }
+
+    public void leaveWaitlist(Long id, Long userId) {
+        if (this.waitlistRepository.removeEntry(id, userId) == 0) {
+            throw new NotFoundException();
+        }
+    }
+
+    private Long promoteNext(Long id) {
+        while (true) {
+            WaitlistEntry next = this.waitlistRepository.findFirstBySessionIdOrderByIdAsc(id).orElse(null);
+            if (next == null) {
+                return null;
+            }
+
+            // The entry is locked by the read above, so no concurrent promotion can claim it as well. One whose user
+            // enrolled while queued (a race with participate) is dropped rather than inserted twice.
+            this.waitlistRepository.removeEntry(next.getId());
+            if (!this.sessionRepository.isParticipant(id, next.getUserId())) {
+                this.sessionRepository.addParticipant(id, next.getUserId());
+                this.sessionRepository.touch(id);
+                return next.getUserId();
+            }
+        }
+    }
+
+    private void syncParticipantCount(Session session) {
+        int participantCount = session.getUsers() != null ? session.getUsers().size() : 0;
+        if (session.getCapacity() != null && participantCount > session.getCapacity()) {
+            throw new BadRequestException("Capacity is below the number of participants");
+        }
+
+        session.setParticipantCount(participantCount);
+    }
 
-        this.sessionRepository.save(session);
+    private Map<Long, List<Long>> groupBySession(List<SessionParticipant> participants) {
+        return participants.stream().collect(Collectors.groupingBy(
+                SessionParticipant::getSessionId,
+                Collectors.mapping(SessionParticipant::getUserId, Collectors.toList())));
     }
 }
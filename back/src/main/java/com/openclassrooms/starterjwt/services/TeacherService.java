@@ -2,22 +2,44 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.projection.ListVersion;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TeacherService {
     private final TeacherRepository teacherRepository;
 
-    public TeacherService(TeacherRepository teacherRepository) {
+    private final EntityManager entityManager;
+
+    public TeacherService(TeacherRepository teacherRepository, EntityManager entityManager) {
         this.teacherRepository = teacherRepository;
+        this.entityManager = entityManager;
     }
 
     public List<Teacher> findAll() {
         return this.teacherRepository.findAll();
     }
 
+    public ListVersion getListVersion() {
+        return this.teacherRepository.findListVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Teacher> consumer) {
+        try (Stream<Teacher> teachers = this.teacherRepository.streamAll()) {
+            teachers.forEach(teacher -> {
+                consumer.accept(teacher);
+                this.entityManager.detach(teacher);
+            });
+        }
+    }
+
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
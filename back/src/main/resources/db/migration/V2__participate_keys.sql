@@ -0,0 +1,16 @@
+CREATE TABLE `PARTICIPATE_DISTINCT` AS
+  SELECT DISTINCT `user_id`, `session_id` FROM `PARTICIPATE`
+  WHERE `user_id` IS NOT NULL AND `session_id` IS NOT NULL;
+
+DELETE FROM `PARTICIPATE`;
+
+INSERT INTO `PARTICIPATE` (`user_id`, `session_id`)
+  SELECT `user_id`, `session_id` FROM `PARTICIPATE_DISTINCT`;
+
+DROP TABLE `PARTICIPATE_DISTINCT`;
+
+ALTER TABLE `PARTICIPATE`
+  MODIFY `user_id` INT NOT NULL,
+  MODIFY `session_id` INT NOT NULL,
+  ADD PRIMARY KEY (`user_id`, `session_id`),
+  ADD INDEX `IDX_PARTICIPATE_SESSION_USER` (`session_id`, `user_id`);
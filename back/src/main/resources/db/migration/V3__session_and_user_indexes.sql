@@ -0,0 +1,3 @@
+CREATE INDEX `IDX_SESSIONS_DATE` ON `SESSIONS` (`date`);
+
+CREATE UNIQUE INDEX `UK_USERS_EMAIL` ON `USERS` (`email`);
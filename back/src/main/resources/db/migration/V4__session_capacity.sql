@@ -0,0 +1,6 @@
+ALTER TABLE `SESSIONS`
+  ADD COLUMN `capacity` INT NULL AFTER `teacher_id`,
+  ADD COLUMN `participant_count` INT NOT NULL DEFAULT 0 AFTER `capacity`;
+
+UPDATE `SESSIONS` s
+  SET `participant_count` = (SELECT COUNT(*) FROM `PARTICIPATE` p WHERE p.`session_id` = s.`id`);
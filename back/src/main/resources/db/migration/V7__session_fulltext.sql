@@ -0,0 +1 @@
+CREATE FULLTEXT INDEX `FTX_SESSIONS_NAME_DESCRIPTION` ON `SESSIONS` (`name`, `description`);
@@ -0,0 +1 @@
+CREATE INDEX `IDX_SESSIONS_TEACHER_DATE` ON `SESSIONS` (`teacher_id`, `date`);
@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.config;
+
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    // Counts only what the action runs on this thread, or hands to decorated executors, so concurrent tests and
+    // background writers do not show up in the count.
+    public static <T> T assertStatementCount(SqlStatementListener listener, long expected, Callable<T> action) throws Exception {
+        listener.beginRequest();
+        T result;
+        SqlStatementListener.RequestStatements statements;
+        try {
+            result = action.call();
+        } finally {
+            statements = listener.endRequest();
+        }
+
+        assertThat(statements.getCount())
+                .as("SQL statements executed")
+                .isEqualTo(expected);
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlStatementFilterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private SqlStatementListener listener;
+
+    private SqlStatementFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(meterRegistry);
+        listener = new SqlStatementListener(provider, 500);
+        filter = new SqlStatementFilter(listener, meterRegistry, 2);
+    }
+
+    @Test
+    void testStatementsPerRequestAreRecorded() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), statements(2));
+
+        assertThat(meterRegistry.get("http.server.sql.statements").tag("uri", "/api/session/{id}")
+                .summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.find("http.server.sql.excessive").counter()).isNull();
+    }
+
+    @Test
+    void testRequestAboveThresholdIsFlagged() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), statements(3));
+
+        assertThat(meterRegistry.get("http.server.sql.excessive").tag("uri", "/api/session/{id}")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testAsyncRequestIsRecordedOnceOnAsyncDispatch() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(request, response);
+        WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+
+        filter.doFilter(request, response, (req, res) -> {
+            statements(1).doFilter(req, res);
+            asyncWebRequest.startAsync();
+        });
+
+        assertThat(meterRegistry.find("http.server.sql.statements").summary()).isNull();
+
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, statements(1));
+
+        assertThat(meterRegistry.get("http.server.sql.statements").tag("uri", "/api/session/{id}")
+                .summary().totalAmount()).isEqualTo(2);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/session/{id}");
+        return request;
+    }
+
+    private FilterChain statements(int count) {
+        return (request, response) -> {
+            for (int i = 0; i < count; i++) {
+                listener.afterQuery(new ExecutionInfo(), Collections.singletonList(new QueryInfo("select 1")));
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.openclassrooms.starterjwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlStatementListenerTest {
+
+    private MeterRegistry meterRegistry;
+
+    private SqlStatementListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(meterRegistry);
+        listener = new SqlStatementListener(provider, 100);
+    }
+
+    @Test
+    void testStatementsAreCountedPerRequest() {
+        listener.beginRequest();
+        listener.afterQuery(execution(5), query("select * from SESSIONS"));
+        listener.afterQuery(execution(7), query("select * from USERS"));
+        SqlStatementListener.RequestStatements statements = listener.endRequest();
+
+        assertThat(statements.getCount()).isEqualTo(2);
+        assertThat(statements.getElapsedMs()).isEqualTo(12);
+        assertThat(meterRegistry.get("sql.statements").tag("type", "select").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testNestedRequestCountsAgainstBothAndRestoresOuter() {
+        SqlStatementListener.RequestStatements outer = listener.beginRequest();
+        listener.beginRequest();
+        listener.afterQuery(execution(5), query("select * from SESSIONS"));
+        SqlStatementListener.RequestStatements inner = listener.endRequest();
+        listener.afterQuery(execution(7), query("select * from USERS"));
+
+        assertThat(listener.endRequest()).isSameAs(outer);
+        assertThat(inner.getCount()).isEqualTo(1);
+        assertThat(outer.getCount()).isEqualTo(2);
+        assertThat(outer.getElapsedMs()).isEqualTo(12);
+    }
+
+    @Test
+    void testStatementsOutsideRequestAreOnlyTimed() {
+        listener.afterQuery(execution(5), query("insert into TEACHERS values (1)"));
+
+        assertThat(listener.endRequest().getCount()).isZero();
+        assertThat(meterRegistry.get("sql.statements").tag("type", "insert").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDecoratedTaskCountsAgainstSubmittingRequest() throws Exception {
+        SqlStatementListener.RequestStatements request = listener.beginRequest();
+        Runnable task = listener.decorate(() -> listener.afterQuery(execution(5), query("select * from USERS")));
+        listener.endRequest();
+
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+
+        assertThat(request.getCount()).isEqualTo(1);
+        assertThat(listener.endRequest().getCount()).isZero();
+    }
+
+    @Test
+    void testSlowStatementIsCounted() {
+        listener.afterQuery(execution(50), query("update SESSIONS set name = 'a'"));
+        listener.afterQuery(execution(150), query("update SESSIONS set name = 'b'"));
+
+        assertThat(meterRegistry.get("sql.slow.statements").tag("type", "update").counter().count()).isEqualTo(1);
+    }
+
+    private static ExecutionInfo execution(long elapsedMs) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMs);
+        return executionInfo;
+    }
+
+    private static List<QueryInfo> query(String sql) {
+        return Collections.singletonList(new QueryInfo(sql));
+    }
+}
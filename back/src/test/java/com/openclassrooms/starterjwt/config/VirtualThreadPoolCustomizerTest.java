@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPoolCustomizerTest {
+
+    // Registered after the SQL monitoring config, as in the application, so the pool is already proxied when the
+    // customizer sees it. The nested configs are not annotated, which keeps them out of the application's scan.
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(PoolConfig.class, SqlMonitoringConfig.class, CustomizerConfig.class);
+
+    @Test
+    void testSizesPoolBehindMonitoringProxy() {
+        contextRunner.run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertThat(dataSource).isInstanceOf(ProxyDataSource.class);
+
+            HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+            assertThat(pool.getMaximumPoolSize()).isEqualTo(20);
+            assertThat(pool.getConnectionTimeout()).isEqualTo(3000);
+        });
+    }
+
+    @Test
+    void testLeavesOtherBeansAlone() {
+        VirtualThreadPoolCustomizer customizer = new VirtualThreadPoolCustomizer(20, 3000);
+        Object bean = new Object();
+
+        assertThat(customizer.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+    }
+
+    static class PoolConfig {
+        @Bean
+        public HikariDataSource dataSource() {
+            return new HikariDataSource();
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    static class CustomizerConfig {
+        @Bean
+        public static VirtualThreadPoolCustomizer virtualThreadPoolCustomizer() {
+            return new VirtualThreadPoolCustomizer(20, 3000);
+        }
+    }
+}
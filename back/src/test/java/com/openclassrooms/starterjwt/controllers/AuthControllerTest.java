@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.config.SqlStatementListener;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
@@ -14,20 +15,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.time.LocalDateTime;
 
+import static com.openclassrooms.starterjwt.config.SqlStatementAssertions.assertStatementCount;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -49,6 +57,9 @@ public class AuthControllerTest {
     @Autowired
     private WebApplicationContext context;
 
+    @Autowired
+    private SqlStatementListener sqlStatementListener;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
@@ -80,10 +91,75 @@ public class AuthControllerTest {
         loginRequest.setEmail("user444@example.com");
         loginRequest.setPassword("password123");
 
-        mvc.perform(post("/api/auth/login")
+        MvcResult result = mvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void givenValidUser_whenLogin_thenUserIsLoadedOnce() throws Exception {
+        User user = new User(
+                "user777@example.com",
+                "Doe",
+                "Jack",
+                passwordEncoder.encode("password123"),
+                true
+        );
+
+        userRepository.save(user);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("user777@example.com");
+        loginRequest.setPassword("password123");
+
+        // The lookup runs on the password hashing pool and is still counted against this request.
+        assertStatementCount(sqlStatementListener, 1, () -> {
+            MvcResult result = mvc.perform(post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            return mvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.admin").value(true))
+                    .andExpect(jsonPath("$.firstName").value("Jack"));
+        });
+    }
+
+    @Test
+    public void givenLegacyBcryptHash_whenLogin_thenPasswordIsRehashed() throws Exception {
+        User user = new User(
+                "user666@example.com",
+                "Doe",
+                "Jane",
+                new BCryptPasswordEncoder().encode("password123"),
+                false
+        );
+
+        userRepository.save(user);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("user666@example.com");
+        loginRequest.setPassword("password123");
+
+        MvcResult result = mvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk());
+
+        String password = userRepository.findByEmail("user666@example.com").get().getPassword();
+        assertThat(password).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches("password123", password)).isTrue();
     }
 
     @Test
@@ -102,9 +178,13 @@ public class AuthControllerTest {
         loginRequest.setEmail("user555@example.com");
         loginRequest.setPassword("wrongpassword");
 
-        mvc.perform(post("/api/auth/login")
+        MvcResult result = mvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isUnauthorized());
     }
 
@@ -114,9 +194,13 @@ public class AuthControllerTest {
         loginRequest.setEmail("nonexistent@example.com");
         loginRequest.setPassword("password123");
 
-        mvc.perform(post("/api/auth/login")
+        MvcResult result = mvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isUnauthorized());
     }
 
@@ -128,9 +212,13 @@ public class AuthControllerTest {
         signupRequest.setLastName("Doey");
         signupRequest.setPassword("password123");
 
-        mvc.perform(post("/api/auth/register")
+        MvcResult result = mvc.perform(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk());
     }
 
@@ -152,9 +240,13 @@ public class AuthControllerTest {
         signupRequest.setLastName("Doey");
         signupRequest.setPassword("password123");
 
-        mvc.perform(post("/api/auth/register")
+        MvcResult result = mvc.perform(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest());
     }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import com.google.gson.Gson;
+import com.openclassrooms.starterjwt.config.SqlStatementFilter;
+import com.openclassrooms.starterjwt.config.SqlStatementListener;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
@@ -16,6 +20,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.Rollback;
@@ -27,18 +32,26 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 import org.junit.jupiter.api.AfterEach;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 
+import static com.openclassrooms.starterjwt.config.SqlStatementAssertions.assertStatementCount;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -67,6 +80,15 @@ public class SessionControllerTest {
     @Autowired
     private WebApplicationContext context;
 
+    @Autowired
+    private SqlStatementListener sqlStatementListener;
+
+    @Autowired
+    private FilterRegistrationBean<SqlStatementFilter> sqlStatementFilter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @BeforeEach
     public void setup() {
         mvc = MockMvcBuilders
@@ -104,6 +126,8 @@ public class SessionControllerTest {
                 "Description",
                 teacherWithGoodId.get(),
                 Arrays.asList(),
+                null,
+                0,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -155,23 +179,27 @@ public class SessionControllerTest {
         Optional<Teacher> teacherWithGoodId = teacherRepository.findByFirstName("John");
 
         Session session1 = new Session(
-                2L,
+                null,
                 "Session 2",
                 new Date(),
                 "Description 2",
                 teacherWithGoodId.get(),
                 Arrays.asList(),
+                null,
+                0,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
 
         Session session2 = new Session(
-                3L,
+                null,
                 "Session 3",
                 new Date(),
                 "Description 3",
                 teacherWithGoodId.get(),
                 Arrays.asList(),
+                null,
+                0,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -211,6 +239,8 @@ public class SessionControllerTest {
                 teacherWithGoodId.get().getId(),
                 "Description 4",
                 Arrays.asList(),
+                null,
+                null,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -255,6 +285,8 @@ public class SessionControllerTest {
                 "Description 5",
                 teacherWithGoodId.get(),
                 null,
+                null,
+                0,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -267,6 +299,8 @@ public class SessionControllerTest {
                 teacherWithGoodId.get().getId(),
                 "Updated Description 5",
                 Arrays.asList(),
+                null,
+                null,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -316,6 +350,8 @@ public class SessionControllerTest {
                 "Description 6",
                 teacherWithGoodId.get(),
                 null,
+                null,
+                0,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -378,6 +414,8 @@ public class SessionControllerTest {
                 "Description 7",
                 teacherWithGoodId.get(),
                 null,
+                null,
+                0,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -393,6 +431,42 @@ public class SessionControllerTest {
 
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenFullSession_whenParticipate_thenStatus409() throws Exception {
+        User user = new User(
+                "full@example.com",
+                "Doe",
+                "Jane",
+                "password",
+                false
+        );
+
+        userRepository.save(user);
+
+        Session session = new Session(
+                null,
+                "Session Full",
+                new Date(),
+                "Description Full",
+                null,
+                null,
+                1,
+                1,
+                LocalDateTime.now(),
+                LocalDateTime.now()
+        );
+
+        sessionRepository.save(session);
+
+        Optional<User> userWithGoodId = userRepository.findByEmail("full@example.com");
+        Optional<Session> sessionWithGoodId = sessionRepository.findByName("Session Full");
+
+        mvc.perform(post("/api/session/" + sessionWithGoodId.get().getId().toString() + "/participate/" + userWithGoodId.get().getId().toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     public void givenInvalidId_whenParticipate_thenStatus400() throws Exception {
@@ -436,6 +510,8 @@ public class SessionControllerTest {
                 "Description 8",
                 teacherWithGoodId.get(),
                 null,
+                null,
+                0,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -481,6 +557,8 @@ public class SessionControllerTest {
                 "Description 9",
                 teacherWithGoodId.get(),
                 Arrays.asList(user),
+                null,
+                0,
                 LocalDateTime.now(),
                 LocalDateTime.now()
         );
@@ -495,4 +573,228 @@ public class SessionControllerTest {
                 .andExpect(status().isOk());
 
     }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenSessionsWithParticipants_whenFindAll_thenStatementCountDoesNotGrowWithSessions() throws Exception {
+        Teacher teacher = teacherRepository.save(new Teacher(null, "Doe", "John", LocalDateTime.now(), LocalDateTime.now()));
+        User user1 = userRepository.save(new User("statements1@example.com", "Doe", "Jane", "password", false));
+        User user2 = userRepository.save(new User("statements2@example.com", "Doe", "Jim", "password", false));
+
+        for (int i = 1; i <= 3; i++) {
+            sessionRepository.save(new Session(null, "Session " + i, new Date(), "Description", teacher,
+                    new ArrayList<>(Arrays.asList(user1, user2)), null, 2, LocalDateTime.now(), LocalDateTime.now()));
+        }
+        entityManagerFactory.getCache().evictAll();
+        // Through the statement filter, as in production, so that its per-request count nests inside the assertion's.
+        MockMvc filtered = MockMvcBuilders
+                .webAppContextSetup(context)
+                .addFilters(sqlStatementFilter.getFilter())
+                .apply(springSecurity())
+                .build();
+
+        // List version, session summaries and participant ids: one query each, however many sessions there are.
+        assertStatementCount(sqlStatementListener, 3, () -> filtered.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(3))));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenCachedSessionList_whenParticipate_thenFindAllListsTheParticipant() throws Exception {
+        Teacher teacher = teacherRepository.save(new Teacher(null, "Doe", "John", LocalDateTime.now(), LocalDateTime.now()));
+        User user = userRepository.save(new User("cached@example.com", "Doe", "Jane", "password", false));
+        Session session = sessionRepository.save(new Session(null, "Cached", new Date(), "Description", teacher,
+                new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+
+        mvc.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].users.length()", is(0)));
+
+        mvc.perform(post("/api/session/" + session.getId() + "/participate/" + user.getId()))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].users", contains(user.getId().intValue())));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenSessionsWithParticipants_whenExportNdjson_thenOneLinePerSession() throws Exception {
+        Teacher teacher = teacherRepository.save(new Teacher(null, "Doe", "John", LocalDateTime.now(), LocalDateTime.now()));
+        User user1 = userRepository.save(new User("export1@example.com", "Doe", "Jane", "password", false));
+        User user2 = userRepository.save(new User("export2@example.com", "Doe", "Jim", "password", false));
+        long now = System.currentTimeMillis();
+
+        sessionRepository.save(new Session(null, "Export 1", new Date(now), "Description", teacher,
+                new ArrayList<>(Arrays.asList(user1, user2)), null, 2, LocalDateTime.now(), LocalDateTime.now()));
+        sessionRepository.save(new Session(null, "Export 2", new Date(now + TimeUnit.DAYS.toMillis(1)), "Description", teacher,
+                new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+
+        String body = mvc.perform(get("/api/session/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("Content-Disposition", containsString("sessions.ndjson")))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+
+        JsonObject first = JsonParser.parseString(lines[0]).getAsJsonObject();
+        assertEquals("Export 1", first.get("name").getAsString());
+        assertEquals("John", first.getAsJsonObject("teacher").get("firstName").getAsString());
+        assertEquals(2, first.getAsJsonArray("attendees").size());
+        assertEquals("export1@example.com", first.getAsJsonArray("attendees").get(0).getAsJsonObject().get("email").getAsString());
+
+        JsonObject second = JsonParser.parseString(lines[1]).getAsJsonObject();
+        assertEquals("Export 2", second.get("name").getAsString());
+        assertEquals(0, second.getAsJsonArray("attendees").size());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenDateRange_whenExportCsv_thenOnlySessionsInRangeAreExported() throws Exception {
+        Teacher teacher = teacherRepository.save(new Teacher(null, "Doe", "John", LocalDateTime.now(), LocalDateTime.now()));
+        User user = userRepository.save(new User("export@example.com", "Doe", "Jane", "password", false));
+
+        sessionRepository.save(new Session(null, "Yoga, beginners", new Date(1700000000000L), "Description", teacher,
+                new ArrayList<>(Arrays.asList(user)), null, 1, LocalDateTime.now(), LocalDateTime.now()));
+        sessionRepository.save(new Session(null, "Out of range", new Date(1800000000000L), "Description", teacher,
+                new ArrayList<>(Arrays.asList(user)), null, 1, LocalDateTime.now(), LocalDateTime.now()));
+
+        String body = mvc.perform(get("/api/session/export")
+                        .param("format", "csv")
+                        .param("from", "2023-11-01T00:00:00.000Z")
+                        .param("to", "2023-12-01T00:00:00.000Z"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("session_id,session_name,session_date,teacher_id,teacher_first_name,"
+                + "teacher_last_name,user_id,user_email,user_first_name,user_last_name", lines[0]);
+        assertTrue(lines[1].contains(",\"Yoga, beginners\","));
+        assertTrue(lines[1].endsWith("," + user.getId() + ",export@example.com,Jane,Doe"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenUnknownFormat_whenExport_thenStatus400() throws Exception {
+        mvc.perform(get("/api/session/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenSessions_whenSearch_thenMatchesAreRankedWithFacets() throws Exception {
+        Teacher john = teacherRepository.save(new Teacher(null, "Doe", "John", LocalDateTime.now(), LocalDateTime.now()));
+        Teacher jane = teacherRepository.save(new Teacher(null, "Roe", "Jane", LocalDateTime.now(), LocalDateTime.now()));
+
+        sessionRepository.save(new Session(null, "Morning yoga", new Date(1710504000000L), "Gentle yoga flow, yoga for beginners", john,
+                new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+        sessionRepository.save(new Session(null, "Evening yoga", new Date(1713182400000L), "Relaxing stretches", jane,
+                new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+        sessionRepository.save(new Session(null, "Pilates", new Date(1713182400000L), "Core strength", john,
+                new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+
+        mvc.perform(get("/api/session/search").param("q", "yoga"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.items.length()", is(2)))
+                .andExpect(jsonPath("$.items[0].name", is("Morning yoga")))
+                .andExpect(jsonPath("$.items[1].name", is("Evening yoga")))
+                .andExpect(jsonPath("$.teachers.length()", is(2)))
+                .andExpect(jsonPath("$.months[*].value", containsInAnyOrder("2024-03", "2024-04")));
+
+        // The teacher facet keeps offering the other teacher once one is selected.
+        mvc.perform(get("/api/session/search").param("q", "yoga").param("teacherId", jane.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.items[0].name", is("Evening yoga")))
+                .andExpect(jsonPath("$.teachers.length()", is(2)))
+                .andExpect(jsonPath("$.months.length()", is(1)));
+
+        mvc.perform(get("/api/session/search").param("q", "yoga").param("page", "1").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.items[0].name", is("Evening yoga")));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenBlankQuery_whenSearch_thenStatus400() throws Exception {
+        mvc.perform(get("/api/session/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenSessions_whenFindCalendar_thenOnlySessionsInWindowForTeacher() throws Exception {
+        Teacher john = teacherRepository.save(new Teacher(null, "Doe", "John", LocalDateTime.now(), LocalDateTime.now()));
+        Teacher jane = teacherRepository.save(new Teacher(null, "Roe", "Jane", LocalDateTime.now(), LocalDateTime.now()));
+
+        sessionRepository.save(new Session(null, "March 1", new Date(1710504000000L), "Description", john,
+                new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+        sessionRepository.save(new Session(null, "March 2", new Date(1710590400000L), "Description", jane,
+                new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+        sessionRepository.save(new Session(null, "April", new Date(1713182400000L), "Description", john,
+                new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+
+        mvc.perform(get("/api/session/calendar")
+                        .param("from", "2024-03-01T00:00:00.000Z")
+                        .param("to", "2024-04-01T00:00:00.000Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].name", contains("March 1", "March 2")))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                .andExpect(jsonPath("$.more", is(false)));
+
+        mvc.perform(get("/api/session/calendar")
+                        .param("from", "2024-03-01T00:00:00.000Z")
+                        .param("to", "2024-04-01T00:00:00.000Z")
+                        .param("teacherId", jane.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].name", contains("March 2")))
+                .andExpect(jsonPath("$.items[0].teacher_id", is(jane.getId().intValue())));
+
+        mvc.perform(get("/api/session/calendar")
+                        .param("from", "2024-03-01T00:00:00.000Z")
+                        .param("to", "2024-05-01T00:00:00.000Z")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(2)))
+                .andExpect(jsonPath("$.more", is(true)));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenPastAndFutureSessions_whenFindUpcomingAndPast_thenSplitAtNow() throws Exception {
+        Teacher teacher = teacherRepository.save(new Teacher(null, "Doe", "John", LocalDateTime.now(), LocalDateTime.now()));
+        long now = System.currentTimeMillis();
+
+        for (int days : new int[]{-2, -1, 1, 2}) {
+            sessionRepository.save(new Session(null, "Day " + days, new Date(now + TimeUnit.DAYS.toMillis(days)), "Description", teacher,
+                    new ArrayList<>(), null, 0, LocalDateTime.now(), LocalDateTime.now()));
+        }
+
+        mvc.perform(get("/api/session/calendar/upcoming").param("teacherId", teacher.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].name", contains("Day 1", "Day 2")));
+
+        mvc.perform(get("/api/session/calendar/past").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].name", contains("Day -1")))
+                .andExpect(jsonPath("$.more", is(true)));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenEmptyWindow_whenFindCalendar_thenStatus400() throws Exception {
+        mvc.perform(get("/api/session/calendar")
+                        .param("from", "2024-04-01T00:00:00.000Z")
+                        .param("to", "2024-03-01T00:00:00.000Z"))
+                .andExpect(status().isBadRequest());
+    }
+
 }
\ No newline at end of file
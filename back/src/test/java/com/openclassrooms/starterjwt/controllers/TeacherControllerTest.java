@@ -11,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.Rollback;
@@ -31,6 +32,7 @@ import static org.hamcrest.Matchers.is;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -87,6 +89,48 @@ public class TeacherControllerTest {
 
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenUnchangedTeacher_whenFindByIdWithETag_thenStatus304() throws Exception {
+        Teacher teacher = new Teacher(
+                null,
+                "Doe",
+                "John",
+                LocalDateTime.now(),
+                LocalDateTime.now()
+        );
+
+        teacher = teacherRepository.save(teacher);
+
+        String eTag = mvc.perform(get("/api/teacher/" + teacher.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/teacher/" + teacher.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void givenUnchangedTeachers_whenFindAllWithETag_thenStatus304() throws Exception {
+        teacherRepository.save(new Teacher(null, "Doe", "Jane", LocalDateTime.now(), LocalDateTime.now()));
+
+        String eTag = mvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/teacher").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        teacherRepository.save(new Teacher(null, "Roe", "Richard", LocalDateTime.now(), LocalDateTime.now()));
+
+        mvc.perform(get("/api/teacher").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     public void givenTeachers_whenFindAll_thenStatus200() throws Exception {
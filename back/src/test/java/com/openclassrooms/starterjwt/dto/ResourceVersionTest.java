@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceVersionTest {
+
+    @Test
+    void testOf_SameStateSameVersion() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 30, 6, 45, 7, 123_000_000);
+
+        ResourceVersion first = ResourceVersion.of(updatedAt, 1L, 2, Arrays.asList(3L, 4L));
+        ResourceVersion second = ResourceVersion.of(updatedAt, 1L, 2, Arrays.asList(3L, 4L));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.getLastModified())
+                .isEqualTo(updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void testOf_StateChangesETag() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 30, 6, 45, 7);
+
+        ResourceVersion before = ResourceVersion.of(updatedAt, 1L, Arrays.asList(3L, 4L));
+        ResourceVersion after = ResourceVersion.of(updatedAt, 1L, Arrays.asList(3L, 5L));
+
+        assertThat(after.getETag()).isNotEqualTo(before.getETag());
+        assertThat(after.getLastModified()).isEqualTo(before.getLastModified());
+    }
+
+    @Test
+    void testOf_StatesWithSameHashCodeDiffer() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 30, 6, 45, 7);
+
+        // Long.hashCode folds the high word onto the low one, so both hash to 0.
+        ResourceVersion first = ResourceVersion.of(updatedAt, 0L);
+        ResourceVersion second = ResourceVersion.of(updatedAt, 0x1_0000_0001L);
+
+        assertThat(first.getETag()).isNotEqualTo(second.getETag());
+    }
+
+    @Test
+    void testOf_CollectionsComparedByContent() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 30, 6, 45, 7);
+
+        ResourceVersion first = ResourceVersion.of(updatedAt, new ArrayDeque<>(Arrays.asList(3L, 4L)));
+        ResourceVersion second = ResourceVersion.of(updatedAt, new ArrayDeque<>(Arrays.asList(3L, 4L)));
+
+        assertThat(first.getETag()).isEqualTo(second.getETag());
+    }
+
+    @Test
+    void testOf_NoLastModified() {
+        ResourceVersion version = ResourceVersion.of(null, 0L);
+
+        assertThat(version.getLastModified()).isEqualTo(-1L);
+        assertThat(version.getETag()).isNotEmpty();
+    }
+}
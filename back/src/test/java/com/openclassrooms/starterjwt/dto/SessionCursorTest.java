@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.dto;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionCursorTest {
+
+    @Test
+    void testEncodeDecode() {
+        SessionCursor cursor = new SessionCursor(new Date(1700000000000L), 42L);
+
+        SessionCursor decoded = SessionCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void testDecode_InvalidBase64() {
+        assertThatThrownBy(() -> SessionCursor.decode("not a cursor!"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void testDecode_InvalidContent() {
+        assertThatThrownBy(() -> SessionCursor.decode("YWJj"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> SessionCursor.decode("YTpi"))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -16,4 +16,11 @@ public class BadRequestExceptionTest {
         assertThat(responseStatusException.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(responseStatusException.getReason()).isEqualTo(exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBadRequestException_WithMessage() {
+        BadRequestException exception = new BadRequestException("Unknown user ids: [1]");
+
+        assertThat(exception.getMessage()).isEqualTo("Unknown user ids: [1]");
+    }
+}
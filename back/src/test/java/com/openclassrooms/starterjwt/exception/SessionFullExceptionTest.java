@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SessionFullExceptionTest {
+
+    @Test
+    public void testSessionFullException() {
+        ResponseStatus responseStatus = SessionFullException.class.getAnnotation(ResponseStatus.class);
+
+        assertThat(responseStatus.value()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(responseStatus.reason()).isEqualTo("Session is full");
+    }
+}
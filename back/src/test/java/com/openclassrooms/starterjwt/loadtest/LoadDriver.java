@@ -0,0 +1,117 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop driver: requests start on a fixed schedule whatever the response times, and latency is measured from
+// the scheduled start so that a slow server cannot hide its queueing delay.
+class LoadDriver {
+    interface Operation {
+        boolean execute() throws Exception;
+    }
+
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+
+    private final List<String> weightedNames = new ArrayList<>();
+
+    private final int workers;
+
+    LoadDriver(int workers) {
+        this.workers = workers;
+    }
+
+    LoadDriver add(String name, int weight, Operation operation) {
+        operations.put(name, operation);
+        for (int i = 0; i < weight; i++) {
+            weightedNames.add(name);
+        }
+        return this;
+    }
+
+    LoadReport run(int rps, int durationSeconds) throws InterruptedException {
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        operations.keySet().forEach(name -> recorders.put(name, new Recorder()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long total = (long) rps * durationSeconds;
+        long start = System.nanoTime();
+
+        try {
+            for (long i = 0; i < total; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                long wait = scheduledAt - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                String name = weightedNames.get(ThreadLocalRandom.current().nextInt(weightedNames.size()));
+                Operation operation = operations.get(name);
+                Recorder recorder = recorders.get(name);
+                pool.execute(() -> {
+                    boolean success;
+                    try {
+                        success = operation.execute();
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    recorder.record(System.nanoTime() - scheduledAt, success);
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(5, TimeUnit.MINUTES);
+        }
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        LoadReport report = new LoadReport(rps, durationSeconds, elapsedSeconds);
+        recorders.forEach((name, recorder) -> report.endpoints.put(name, recorder.summarize(elapsedSeconds)));
+        return report;
+    }
+
+    private static final class Recorder {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long latencyNanos, boolean success) {
+            latencies.add(latencyNanos);
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+
+        LoadReport.Endpoint summarize(double elapsedSeconds) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+
+            LoadReport.Endpoint endpoint = new LoadReport.Endpoint();
+            endpoint.requests = sorted.length;
+            endpoint.errors = errors.get();
+            endpoint.throughput = sorted.length / elapsedSeconds;
+            endpoint.p50Ms = percentile(sorted, 50);
+            endpoint.p90Ms = percentile(sorted, 90);
+            endpoint.p99Ms = percentile(sorted, 99);
+            endpoint.maxMs = sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6;
+            return endpoint;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class LoadReport {
+    public final int targetRps;
+
+    public final int durationSeconds;
+
+    public final double elapsedSeconds;
+
+    public final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    LoadReport(int targetRps, int durationSeconds, double elapsedSeconds) {
+        this.targetRps = targetRps;
+        this.durationSeconds = durationSeconds;
+        this.elapsedSeconds = elapsedSeconds;
+    }
+
+    public double getThroughput() {
+        return endpoints.values().stream().mapToDouble(endpoint -> endpoint.throughput).sum();
+    }
+
+    public long getErrors() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.errors).sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder(String.format("%-12s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        endpoints.forEach((name, endpoint) -> table.append(String.format("%-12s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, endpoint.requests, endpoint.errors, endpoint.throughput,
+                endpoint.p50Ms, endpoint.p90Ms, endpoint.p99Ms, endpoint.maxMs)));
+        return table.toString();
+    }
+
+    static class Endpoint {
+        public long requests;
+
+        public long errors;
+
+        public double throughput;
+
+        public double p50Ms;
+
+        public double p90Ms;
+
+        public double p99Ms;
+
+        public double maxMs;
+    }
+}
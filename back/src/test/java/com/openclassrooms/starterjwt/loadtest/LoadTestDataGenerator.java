@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+class LoadTestDataGenerator {
+    static final String PASSWORD = "password123";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Random random;
+
+    LoadTestDataGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    LoadTestData generate(int teachers, int sessions, int users, int participations, String passwordHash) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> teacherRows = new ArrayList<>();
+        for (long id = 1; id <= teachers; id++) {
+            teacherRows.add(new Object[]{id, "Teacher" + id, "Load", now, now});
+        }
+        batch("insert into TEACHERS (id, last_name, first_name, created_at, updated_at) values (?, ?, ?, ?, ?)", teacherRows);
+
+        List<String> emails = new ArrayList<>();
+        List<Object[]> userRows = new ArrayList<>();
+        for (long id = 1; id <= users; id++) {
+            String email = "load" + id + "@example.com";
+            emails.add(email);
+            userRows.add(new Object[]{id, email, "User" + id, "Load", passwordHash, false, now, now});
+        }
+        batch("insert into USERS (id, email, last_name, first_name, password, admin, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?)", userRows);
+
+        Set<Long> enrolled = new HashSet<>();
+        int[] participantCounts = new int[sessions + 1];
+        List<Object[]> participateRows = new ArrayList<>();
+        int target = Math.min(participations, sessions * users);
+        while (participateRows.size() < target) {
+            long sessionId = 1 + random.nextInt(sessions);
+            long userId = 1 + random.nextInt(users);
+            if (enrolled.add(pair(sessionId, userId, users))) {
+                participantCounts[(int) sessionId]++;
+                participateRows.add(new Object[]{sessionId, userId});
+            }
+        }
+
+        String description = description();
+        List<Object[]> sessionRows = new ArrayList<>();
+        for (long id = 1; id <= sessions; id++) {
+            Timestamp date = Timestamp.valueOf(LocalDateTime.now().plusDays(random.nextInt(90)).withNano(0));
+            sessionRows.add(new Object[]{id, "Session " + id, date, description, 1 + random.nextInt(teachers),
+                    participantCounts[(int) id], now, now});
+        }
+        batch("insert into SESSIONS (id, name, date, description, teacher_id, participant_count, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?)", sessionRows);
+        batch("insert into PARTICIPATE (session_id, user_id) values (?, ?)", participateRows);
+
+        // Every participate request of the run enrols a pair that is not taken yet, so it is expected to succeed.
+        List<long[]> freePairs = new ArrayList<>();
+        for (long sessionId = 1; sessionId <= sessions; sessionId++) {
+            for (long userId = 1; userId <= users; userId++) {
+                if (!enrolled.contains(pair(sessionId, userId, users))) {
+                    freePairs.add(new long[]{sessionId, userId});
+                }
+            }
+        }
+        Collections.shuffle(freePairs, random);
+
+        return new LoadTestData(sessions, emails, new ConcurrentLinkedQueue<>(freePairs));
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    private static long pair(long sessionId, long userId, int users) {
+        return (sessionId - 1) * users + (userId - 1);
+    }
+
+    private static String description() {
+        StringBuilder description = new StringBuilder(2000);
+        while (description.length() < 2000) {
+            description.append("Slow flow focused on breathing, hip opening and balance. ");
+        }
+        return description.substring(0, 2000);
+    }
+
+    static final class LoadTestData {
+        final int sessions;
+
+        final List<String> emails;
+
+        final ConcurrentLinkedQueue<long[]> freePairs;
+
+        LoadTestData(int sessions, List<String> emails, ConcurrentLinkedQueue<long[]> freePairs) {
+            this.sessions = sessions;
+            this.emails = emails;
+            this.freePairs = freePairs;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "classpath:application-loadtest.properties")
+public class SessionLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionLoadTest.class);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${loadtest.teachers:20}")
+    private int teachers;
+
+    @Value("${loadtest.sessions:200}")
+    private int sessions;
+
+    @Value("${loadtest.users:1000}")
+    private int users;
+
+    @Value("${loadtest.participations:5000}")
+    private int participations;
+
+    @Value("${loadtest.rps:20}")
+    private int rps;
+
+    @Value("${loadtest.durationSeconds:30}")
+    private int durationSeconds;
+
+    @Value("${loadtest.warmupSeconds:10}")
+    private int warmupSeconds;
+
+    @Value("${loadtest.workers:64}")
+    private int workers;
+
+    @Value("${loadtest.maxP99Ms:2000}")
+    private double maxP99Ms;
+
+    @Value("${loadtest.report:target/loadtest-report.json}")
+    private String reportPath;
+
+    @Test
+    public void givenGeneratedData_whenDrivenAtTargetRps_thenLatencyStaysWithinBudget() throws Exception {
+        LoadTestDataGenerator.LoadTestData data = new LoadTestDataGenerator(jdbcTemplate, 42L)
+                .generate(teachers, sessions, users, participations, passwordEncoder.encode(LoadTestDataGenerator.PASSWORD));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(login(data.emails.get(0)).getBody().get("token").toString());
+        HttpEntity<Void> authenticated = new HttpEntity<>(headers);
+
+        LoadDriver driver = new LoadDriver(workers)
+                .add("login", 1, () -> login(randomEmail(data)).getStatusCode().is2xxSuccessful())
+                .add("sessions", 6, () -> restTemplate.exchange("/api/session", HttpMethod.GET, authenticated, String.class)
+                        .getStatusCode().is2xxSuccessful())
+                .add("participate", 3, () -> {
+                    long[] pair = data.freePairs.poll();
+                    return pair != null && restTemplate.exchange("/api/session/" + pair[0] + "/participate/" + pair[1],
+                            HttpMethod.POST, authenticated, Void.class).getStatusCode().is2xxSuccessful();
+                });
+
+        // Lets the JIT, the connection pools and the second-level cache settle before anything is measured.
+        driver.run(rps, warmupSeconds);
+        LoadReport report = driver.run(rps, durationSeconds);
+
+        File file = new File(reportPath);
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        logger.info("Load test report written to {}\n{}", file.getAbsolutePath(), report);
+
+        assertThat(report.getErrors()).isZero();
+        assertThat(report.getThroughput()).isGreaterThanOrEqualTo(rps * 0.9);
+        report.endpoints.forEach((name, endpoint) ->
+                assertThat(endpoint.p99Ms).as("p99 of %s", name).isLessThanOrEqualTo(maxP99Ms));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private ResponseEntity<Map> login(String email) {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(LoadTestDataGenerator.PASSWORD);
+        return restTemplate.postForEntity("/api/auth/login", loginRequest, Map.class);
+    }
+
+    private static String randomEmail(LoadTestDataGenerator.LoadTestData data) {
+        return data.emails.get(ThreadLocalRandom.current().nextInt(data.emails.size()));
+    }
+}
@@ -1,9 +1,12 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.projection.SessionSlot;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.assertj.core.groups.Tuple;
@@ -13,13 +16,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.tuple;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
 
 class SessionMapperTest {
 
@@ -42,7 +48,7 @@ class SessionMapperTest {
     @Test
     void testToEntity() {
         // Mock data
-        SessionDto sessionDto = new SessionDto(1L, "name", new Date(), 1L, "description", Arrays.asList(1L, 2L), null, null);
+        SessionDto sessionDto = new SessionDto(1L, "name", new Date(), 1L, "description", Arrays.asList(1L, 2L), null, null, null, null);
         Teacher teacher1 = new Teacher(1L, "teacherLastName", "teacherFirstName", null, null);
         User user1 = new User(1L, "user1@test.com", "lastName1", "firstName1", "password123", false, null, null);
         User user2 = new User(2L, "user2@test.com", "lastName2", "firstName2", "password456", false, null, null);
@@ -51,8 +57,7 @@ class SessionMapperTest {
         when(teacherService.findById(1L)).thenReturn(teacher1);
 
         // Mock behavior of userService
-        when(userService.findById(1L)).thenReturn(user1);
-        when(userService.findById(2L)).thenReturn(user2);
+        when(userService.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(user1, user2));
 
         // Test
         Session session = sessionMapper.toEntity(sessionDto);
@@ -76,13 +81,50 @@ class SessionMapperTest {
                 );
     }
 
+    @Test
+    void testToEntity_UsersResolvedInOneQuery() {
+        SessionDto sessionDto = new SessionDto(1L, "name", new Date(), null, "description", Arrays.asList(2L, 1L, 2L), null, null, null, null);
+        User user1 = new User(1L, "user1@test.com", "lastName1", "firstName1", "password123", false, null, null);
+        User user2 = new User(2L, "user2@test.com", "lastName2", "firstName2", "password456", false, null, null);
+
+        when(userService.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(user1, user2));
+
+        Session session = sessionMapper.toEntity(sessionDto);
+
+        assertThat(session.getUsers()).containsExactly(user2, user1);
+        verify(userService, times(1)).findAllById(Arrays.asList(2L, 1L));
+        verify(userService, never()).findById(anyLong());
+    }
+
+    @Test
+    void testToEntity_UnknownUsers() {
+        SessionDto sessionDto = new SessionDto(1L, "name", new Date(), null, "description", Arrays.asList(1L, 2L, 3L), null, null, null, null);
+        User user1 = new User(1L, "user1@test.com", "lastName1", "firstName1", "password123", false, null, null);
+
+        when(userService.findAllById(Arrays.asList(1L, 2L, 3L))).thenReturn(Collections.singletonList(user1));
+
+        assertThatThrownBy(() -> sessionMapper.toEntity(sessionDto))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("[2, 3]");
+    }
+
+    @Test
+    void testToEntity_NoUsers() {
+        SessionDto sessionDto = new SessionDto(1L, "name", new Date(), null, "description", null, null, null, null, null);
+
+        Session session = sessionMapper.toEntity(sessionDto);
+
+        assertThat(session.getUsers()).isEmpty();
+        verify(userService, never()).findAllById(anyList());
+    }
+
     @Test
     void testToDto() {
         // Mock data
         Teacher teacher = new Teacher(1L, "teacherLastName", "teacherFirstName", null, null);
         User user1 = new User(1L, "user1@test.com", "lastName1", "firstName1", "password123", false, null, null);
         User user2 = new User(2L, "user2@test.com", "lastName2", "firstName2", "password456", false, null, null);
-        Session session = new Session(1L, "name", new Date(), "description", teacher, Arrays.asList(user1, user2), null, null);
+        Session session = new Session(1L, "name", new Date(), "description", teacher, Arrays.asList(user1, user2), null, 0, null, null);
 
         // Test
         SessionDto sessionDto = sessionMapper.toDto(session);
@@ -108,16 +150,15 @@ class SessionMapperTest {
         User user1 = new User(1L, "user1@test.com", "lastName1", "firstName1", "password123", false, null, null);
         User user2 = new User(2L, "user2@test.com", "lastName2", "firstName2", "password456", false, null, null);
 
-        SessionDto sessionDto1 = new SessionDto(1L, "name1", new Date(), 1L, "description1", Arrays.asList(1L, 2L), null, null);
-        SessionDto sessionDto2 = new SessionDto(2L, "name2", new Date(), 2L, "description2", Arrays.asList(1L, 2L), null, null);
+        SessionDto sessionDto1 = new SessionDto(1L, "name1", new Date(), 1L, "description1", Arrays.asList(1L, 2L), null, null, null, null);
+        SessionDto sessionDto2 = new SessionDto(2L, "name2", new Date(), 2L, "description2", Arrays.asList(1L, 2L), null, null, null, null);
 
         // Mock behavior of teacherService
         when(teacherService.findById(1L)).thenReturn(teacher1);
         when(teacherService.findById(2L)).thenReturn(teacher2);
 
         // Mock behavior of userService
-        when(userService.findById(1L)).thenReturn(user1);
-        when(userService.findById(2L)).thenReturn(user2);
+        when(userService.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(user1, user2));
 
         // Test
         List<Session> sessions = sessionMapper.toEntity(Arrays.asList(sessionDto1, sessionDto2));
@@ -156,8 +197,12 @@ class SessionMapperTest {
         User user2 = new User(2L, "user2@test.com", "lastName2", "firstName2", "password456", false, null, null);
 
         Session session1 = new Session(1L, "name1", new Date(), "description1", teacher1, Arrays.asList(user1, user2),
+                null,
+                0,
                 null, null);
         Session session2 = new Session(2L, "name2", new Date(), "description2", teacher2, Collections.emptyList(),
+                null,
+                0,
                 null, null);
 
         // Test
@@ -181,6 +226,55 @@ class SessionMapperTest {
                 );
     }
 
+    @Test
+    void testToDto_Summaries() {
+        Date date = new Date();
+        SessionSummary summary1 = mock(SessionSummary.class);
+        when(summary1.getId()).thenReturn(1L);
+        when(summary1.getName()).thenReturn("name1");
+        when(summary1.getDate()).thenReturn(date);
+        when(summary1.getDescription()).thenReturn("description1");
+        when(summary1.getTeacherId()).thenReturn(3L);
+        SessionSummary summary2 = mock(SessionSummary.class);
+        when(summary2.getId()).thenReturn(2L);
+        when(summary2.getName()).thenReturn("name2");
+        when(summary2.getTeacherId()).thenReturn(null);
+
+        Map<Long, List<Long>> participants = new HashMap<>();
+        participants.put(1L, Arrays.asList(10L, 11L));
+
+        List<SessionDto> sessionDtos = sessionMapper.toDto(Arrays.asList(summary1, summary2), participants);
+
+        assertThat(sessionDtos)
+                .extracting("id", "name", "date", "description", "teacher_id", "users")
+                .containsExactly(
+                        tuple(1L, "name1", date, "description1", 3L, Arrays.asList(10L, 11L)),
+                        tuple(2L, "name2", null, null, null, Collections.emptyList()));
+    }
+
+    @Test
+    void testToDto_NullSummaries() {
+        assertThat(sessionMapper.toDto((List<SessionSummary>) null, Collections.emptyMap())).isNull();
+        assertThat(sessionMapper.toDto((SessionSummary) null, Collections.emptyList())).isNull();
+    }
+
+    @Test
+    void testToSlotDto() {
+        Date date = new Date();
+        SessionSlot slot = mock(SessionSlot.class);
+        when(slot.getId()).thenReturn(1L);
+        when(slot.getName()).thenReturn("name1");
+        when(slot.getDate()).thenReturn(date);
+        when(slot.getTeacherId()).thenReturn(3L);
+        when(slot.getCapacity()).thenReturn(10);
+        when(slot.getParticipantCount()).thenReturn(4);
+
+        assertThat(sessionMapper.toSlotDto(Collections.singletonList(slot)))
+                .extracting("id", "name", "date", "teacher_id", "capacity", "participantCount")
+                .containsExactly(tuple(1L, "name1", date, 3L, 10, 4));
+        assertThat(sessionMapper.toSlotDto(null)).isNull();
+    }
+
     @Test
     void testToEntity_NullDtoList() {
         List<Session> sessions = sessionMapper.toEntity((List<SessionDto>) null);
@@ -1,10 +1,12 @@
 package com.openclassrooms.starterjwt.models;
 
+import com.openclassrooms.starterjwt.config.HibernateCacheConfig;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -21,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith({SpringExtension.class, MockitoExtension.class})
 @DataJpaTest
+@Import(HibernateCacheConfig.class)
 @TestPropertySource(locations = "classpath:application-integrationtest.properties")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @Rollback
@@ -34,9 +37,9 @@ public class SessionTest {
     public void testEquals() {
         LocalDateTime now = LocalDateTime.now();
         Date date = new Date();
-        Session session1 = new Session(1L, "Session1", date, "Description1", null, null, now, now);
-        Session session2 = new Session(1L, "Session1", date, "Description1", null, null, now, now);
-        Session session3 = new Session(2L, "Session2", date, "Description2", null, null, now, now);
+        Session session1 = new Session(1L, "Session1", date, "Description1", null, null, null, 0, now, now);
+        Session session2 = new Session(1L, "Session1", date, "Description1", null, null, null, 0, now, now);
+        Session session3 = new Session(2L, "Session2", date, "Description2", null, null, null, 0, now, now);
 
         assertThat(session1).isEqualTo(session2);
         assertThat(session1).isNotEqualTo(session3);
@@ -48,9 +51,9 @@ public class SessionTest {
     public void testHashCode() {
         LocalDateTime now = LocalDateTime.now();
         Date date = new Date();
-        Session session1 = new Session(1L, "Session1", date, "Description1", null, null, now, now);
-        Session session2 = new Session(1L, "Session1", date, "Description1", null, null, now, now);
-        Session session3 = new Session(2L, "Session2", date, "Description2", null, null, now, now);
+        Session session1 = new Session(1L, "Session1", date, "Description1", null, null, null, 0, now, now);
+        Session session2 = new Session(1L, "Session1", date, "Description1", null, null, null, 0, now, now);
+        Session session3 = new Session(2L, "Session2", date, "Description2", null, null, null, 0, now, now);
 
         assertThat(session1.hashCode()).isEqualTo(session2.hashCode());
         assertThat(session1.hashCode()).isNotEqualTo(session3.hashCode());
@@ -94,9 +97,9 @@ public class SessionTest {
     public void testCanEqual() {
         LocalDateTime now = LocalDateTime.now();
         Date date = new Date();
-        Session session1 = new Session(1L, "Session1", date, "Description1", null, null, now, now);
-        Session session2 = new Session(1L, "Session1", date, "Description1", null, null, now, now);
-        Session session3 = new Session(2L, "Session2", date, "Description2", null, null, now, now);
+        Session session1 = new Session(1L, "Session1", date, "Description1", null, null, null, 0, now, now);
+        Session session2 = new Session(1L, "Session1", date, "Description1", null, null, null, 0, now, now);
+        Session session3 = new Session(2L, "Session2", date, "Description2", null, null, null, 0, now, now);
 
         assertThat(session1.canEqual(session2)).isTrue();
         assertThat(session1.canEqual(session3)).isTrue();
@@ -0,0 +1,59 @@
+package com.openclassrooms.starterjwt.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimedPasswordEncoderTest {
+
+    private MeterRegistry meterRegistry;
+
+    private TimedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DelegatingPasswordEncoder delegate = (DelegatingPasswordEncoder) PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        delegate.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        passwordEncoder = new TimedPasswordEncoder(delegate, "bcrypt", "bcrypt", meterRegistry);
+    }
+
+    @Test
+    void testEncodeIsTimed() {
+        String hash = passwordEncoder.encode("password123");
+
+        assertThat(hash).startsWith("{bcrypt}");
+        assertThat(meterRegistry.get("password.hash").tag("operation", "encode").tag("algorithm", "bcrypt")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testMatchesIsTimedPerStoredAlgorithm() {
+        String hash = passwordEncoder.encode("password123");
+
+        assertThat(passwordEncoder.matches("password123", hash)).isTrue();
+        assertThat(passwordEncoder.matches("wrong", "{noop}password123")).isFalse();
+
+        assertThat(meterRegistry.get("password.hash").tag("operation", "matches").tag("algorithm", "bcrypt")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("password.hash").tag("operation", "matches").tag("algorithm", "noop")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testMatchesWithLegacyHashUsesLegacyAlgorithm() {
+        String legacyHash = new BCryptPasswordEncoder().encode("password123");
+
+        passwordEncoder.matches("password123", legacyHash);
+
+        assertThat(meterRegistry.get("password.hash").tag("operation", "matches").tag("algorithm", "bcrypt")
+                .timer().count()).isEqualTo(1);
+        assertThat(passwordEncoder.upgradeEncoding(legacyHash)).isTrue();
+    }
+}
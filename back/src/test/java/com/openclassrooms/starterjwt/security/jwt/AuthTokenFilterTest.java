@@ -1,11 +1,17 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,6 +28,8 @@ import java.io.IOException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +44,15 @@ class AuthTokenFilterTest {
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private JwtTokenCache tokenCache;
+
+    @Mock
+    private JwtRevocationList revocationList;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private HttpServletRequest request;
 
@@ -60,8 +77,7 @@ class AuthTokenFilterTest {
         String username = "testUser";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateJwtToken(token)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(token)).thenReturn(username);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(JwtValidationResult.valid(Jwts.claims().setSubject(username)));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
 
         authTokenFilter.doFilterInternal(request, response, filterChain);
@@ -70,7 +86,66 @@ class AuthTokenFilterTest {
         assertThat(authentication).isNotNull();
         assertThat(authentication.getPrincipal()).isEqualTo(userDetails);
 
+        verify(tokenCache, times(1)).put(eq(token), eq(username), eq(userDetails), any());
+        verify(filterChain, times(1)).doFilter(request, response);
+        assertThat(meterRegistry.get("jwt.validation").tag("outcome", "valid").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilterInternal_CachedToken() throws ServletException, IOException {
+        String token = "cachedToken";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(tokenCache.get(token)).thenReturn(userDetails);
+
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        UsernamePasswordAuthenticationToken authentication = (UsernamePasswordAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isEqualTo(userDetails);
+
+        verify(jwtUtils, never()).parseJwtToken(anyString());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(filterChain, times(1)).doFilter(request, response);
+        assertThat(meterRegistry.get("jwt.validation").tag("outcome", "cached").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilterInternal_StatelessPrincipal() throws ServletException, IOException {
+        String token = "statelessToken";
+        Claims claims = Jwts.claims().setSubject("testUser");
+        UserDetailsImpl principal = UserDetailsImpl.builder().id(1L).username("testUser").admin(false).build();
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(JwtValidationResult.valid(claims));
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(principal);
+
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        UsernamePasswordAuthenticationToken authentication = (UsernamePasswordAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isEqualTo(principal);
+
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(tokenCache, times(1)).put(eq(token), eq("testUser"), eq(principal), any());
+        verify(filterChain, times(1)).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_RevokedToken() throws ServletException, IOException {
+        String token = "revokedToken";
+        Claims claims = Jwts.claims().setSubject("testUser");
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(JwtValidationResult.valid(claims));
+        when(revocationList.isRevoked(claims)).thenReturn(true);
+
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(filterChain, times(1)).doFilter(request, response);
+        assertThat(meterRegistry.get("jwt.validation").tag("outcome", "revoked").timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -78,12 +153,14 @@ class AuthTokenFilterTest {
         String token = "invalidToken";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateJwtToken(token)).thenReturn(false);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(JwtValidationResult.invalid(JwtValidationResult.Failure.MALFORMED));
 
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(filterChain, times(1)).doFilter(request, response);
+        assertThat(meterRegistry.get("jwt.validation").tag("outcome", "malformed").timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -101,7 +178,7 @@ class AuthTokenFilterTest {
         String token = "validToken";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateJwtToken(token)).thenThrow(new RuntimeException("JWT validation error"));
+        when(jwtUtils.parseJwtToken(token)).thenThrow(new RuntimeException("JWT validation error"));
 
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
@@ -0,0 +1,62 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtRevocationListTest {
+
+    private JwtRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new JwtRevocationList(60000);
+    }
+
+    private Claims claims(Long userId, Date issuedAt) {
+        Claims claims = Jwts.claims().setSubject("testUser").setIssuedAt(issuedAt);
+        claims.put(JwtUtils.CLAIM_USER_ID, userId);
+        return claims;
+    }
+
+    @Test
+    void testIsRevoked_NotRevoked() {
+        assertThat(revocationList.isRevoked(claims(1L, new Date()))).isFalse();
+    }
+
+    @Test
+    void testIsRevoked_TokenIssuedBeforeRevocation() {
+        Claims claims = claims(1L, new Date(System.currentTimeMillis() - 1000));
+
+        revocationList.revoke(1L);
+
+        assertThat(revocationList.isRevoked(claims)).isTrue();
+        assertThat(revocationList.isRevoked(claims(2L, new Date(System.currentTimeMillis() - 1000)))).isFalse();
+    }
+
+    @Test
+    void testIsRevoked_TokenIssuedAfterRevocation() {
+        revocationList.revoke(1L);
+
+        assertThat(revocationList.isRevoked(claims(1L, new Date(System.currentTimeMillis() + 1000)))).isFalse();
+    }
+
+    @Test
+    void testIsRevoked_TokenWithoutIdentity() {
+        revocationList.revoke(1L);
+
+        assertThat(revocationList.isRevoked(Jwts.claims().setSubject("testUser"))).isFalse();
+    }
+
+    @Test
+    void testRevoke_NullUserId() {
+        revocationList.revoke(null);
+
+        assertThat(revocationList.isRevoked(claims(1L, new Date()))).isFalse();
+    }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenCacheTest {
+
+    private JwtTokenCache tokenCache;
+
+    private UserDetailsImpl userDetails;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new JwtTokenCache(100, 60000);
+        userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("john.doe@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .password("password")
+                .build();
+    }
+
+    @Test
+    void testPutAndGet() {
+        tokenCache.put("token", userDetails.getUsername(), userDetails, new Date(System.currentTimeMillis() + 60000));
+
+        assertThat(tokenCache.get("token")).isEqualTo(userDetails);
+    }
+
+    @Test
+    void testGet_UnknownToken() {
+        assertThat(tokenCache.get("unknown")).isNull();
+    }
+
+    @Test
+    void testPut_ExpiredToken() {
+        tokenCache.put("token", userDetails.getUsername(), userDetails, new Date(System.currentTimeMillis() - 1000));
+
+        assertThat(tokenCache.get("token")).isNull();
+    }
+
+    @Test
+    void testPut_NoExpiration() {
+        tokenCache.put("token", userDetails.getUsername(), userDetails, null);
+
+        assertThat(tokenCache.get("token")).isEqualTo(userDetails);
+    }
+
+    @Test
+    void testEvictUser() {
+        UserDetailsImpl otherUser = UserDetailsImpl.builder().id(2L).username("jane.doe@example.com").build();
+        tokenCache.put("token1", userDetails.getUsername(), userDetails, null);
+        tokenCache.put("token2", userDetails.getUsername(), userDetails, null);
+        tokenCache.put("token3", otherUser.getUsername(), otherUser, null);
+
+        tokenCache.evictUser(userDetails.getUsername());
+
+        assertThat(tokenCache.get("token1")).isNull();
+        assertThat(tokenCache.get("token2")).isNull();
+        assertThat(tokenCache.get("token3")).isEqualTo(otherUser);
+        assertThat(tokenCache.size()).isEqualTo(1);
+    }
+}
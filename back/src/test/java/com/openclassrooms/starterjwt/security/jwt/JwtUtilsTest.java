@@ -12,6 +12,7 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
 
@@ -61,6 +62,106 @@ class JwtUtilsTest {
         assertThat(isValid).isFalse();
     }
 
+    @Test
+    void testGenerateAndParseJwtToken() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(userDetails.getUsername()).thenReturn("testUser");
+
+        String token = jwtUtils.generateJwtToken(authentication);
+        JwtValidationResult result = jwtUtils.parseJwtToken(token);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getFailure()).isNull();
+        assertThat(result.getClaims().getSubject()).isEqualTo("testUser");
+        assertThat(result.getClaims().getExpiration()).isAfter(new Date());
+        assertThat(jwtUtils.validateJwtToken(token)).isTrue();
+        assertThat(jwtUtils.getUserNameFromJwtToken(token)).isEqualTo("testUser");
+    }
+
+    @Test
+    void testGetUserDetailsFromClaims_StatelessPrincipal() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "statelessPrincipal", true);
+        UserDetailsImpl principal = UserDetailsImpl.builder()
+                .id(42L)
+                .username("testUser")
+                .firstName("Test")
+                .lastName("User")
+                .admin(true)
+                .password("password")
+                .build();
+        when(authentication.getPrincipal()).thenReturn(principal);
+
+        String token = jwtUtils.generateJwtToken(authentication);
+        UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(jwtUtils.parseJwtToken(token).getClaims());
+
+        assertThat(userDetails).isNotNull();
+        assertThat(userDetails.getId()).isEqualTo(42L);
+        assertThat(userDetails.getUsername()).isEqualTo("testUser");
+        assertThat(userDetails.getFirstName()).isEqualTo("Test");
+        assertThat(userDetails.getLastName()).isEqualTo("User");
+        assertThat(userDetails.getAdmin()).isTrue();
+        assertThat(userDetails.getPassword()).isNull();
+    }
+
+    @Test
+    void testGetUserDetailsFromClaims_Disabled() {
+        Claims claims = Jwts.claims().setSubject("testUser");
+        claims.put(JwtUtils.CLAIM_USER_ID, 42L);
+
+        assertThat(jwtUtils.getUserDetailsFromClaims(claims)).isNull();
+    }
+
+    @Test
+    void testGetUserDetailsFromClaims_TokenWithoutIdentity() {
+        ReflectionTestUtils.setField(jwtUtils, "statelessPrincipal", true);
+
+        assertThat(jwtUtils.getUserDetailsFromClaims(Jwts.claims().setSubject("testUser"))).isNull();
+    }
+
+    @Test
+    void testParseJwtToken_ExpiredToken() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        String token = Jwts.builder()
+                .setSubject("testUser")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 10000))
+                .setExpiration(new Date(System.currentTimeMillis() - 5000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        JwtValidationResult result = jwtUtils.parseJwtToken(token);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getClaims()).isNull();
+        assertThat(result.getFailure()).isEqualTo(JwtValidationResult.Failure.EXPIRED);
+    }
+
+    @Test
+    void testParseJwtToken_InvalidSignature() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        String token = Jwts.builder()
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "otherSecret")
+                .compact();
+
+        JwtValidationResult result = jwtUtils.parseJwtToken(token);
+
+        assertThat(result.getFailure()).isEqualTo(JwtValidationResult.Failure.INVALID_SIGNATURE);
+    }
+
+    @Test
+    void testParseJwtToken_MalformedToken() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+
+        JwtValidationResult result = jwtUtils.parseJwtToken("invalidToken");
+
+        assertThat(result.getFailure()).isEqualTo(JwtValidationResult.Failure.MALFORMED);
+    }
+
     @Test
     void testToJson() {
         Object obj = new Object();
@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    @InjectMocks
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void testLoadUserByUsername() {
+        User user = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .password("{bcrypt}hash")
+                .admin(true)
+                .build();
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        UserDetailsImpl details = (UserDetailsImpl) userDetailsService.loadUserByUsername("test@example.com");
+
+        assertThat(details.getId()).isEqualTo(1L);
+        assertThat(details.getUsername()).isEqualTo("test@example.com");
+        assertThat(details.getAdmin()).isTrue();
+        assertThat(details.getPassword()).isEqualTo("{bcrypt}hash");
+    }
+
+    @Test
+    void testLoadUserByUsername_NotFound() {
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("missing@example.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void testUpdatePassword() {
+        UserDetailsImpl details = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .admin(false)
+                .password("legacy")
+                .build();
+        when(userRepository.updatePassword("test@example.com", "{pbkdf2}upgraded")).thenReturn(1);
+
+        UserDetails updated = userDetailsService.updatePassword(details, "{pbkdf2}upgraded");
+
+        verify(userRepository).updatePassword("test@example.com", "{pbkdf2}upgraded");
+        assertThat(updated.getPassword()).isEqualTo("{pbkdf2}upgraded");
+        assertThat(((UserDetailsImpl) updated).getId()).isEqualTo(1L);
+        assertThat(updated.getUsername()).isEqualTo("test@example.com");
+    }
+}
@@ -0,0 +1,55 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.CacheStatsDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheStatsServiceTest {
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    @Mock
+    private CacheRegionStatistics teacherRegion;
+
+    @InjectMocks
+    private CacheStatsService cacheStatsService;
+
+    @Test
+    public void testGetStatistics() {
+        when(sessionFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"teacher", "unknown"});
+        when(statistics.getCacheRegionStatistics("teacher")).thenReturn(teacherRegion);
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(9L);
+        when(statistics.getSecondLevelCacheMissCount()).thenReturn(1L);
+        when(statistics.getQueryCacheHitCount()).thenReturn(4L);
+        when(teacherRegion.getRegionName()).thenReturn("teacher");
+        when(teacherRegion.getHitCount()).thenReturn(9L);
+        when(teacherRegion.getMissCount()).thenReturn(1L);
+        when(teacherRegion.getPutCount()).thenReturn(2L);
+
+        CacheStatsDto stats = cacheStatsService.getStatistics();
+
+        assertThat(stats.getSecondLevelCacheHitCount()).isEqualTo(9L);
+        assertThat(stats.getSecondLevelCacheMissCount()).isEqualTo(1L);
+        assertThat(stats.getQueryCacheHitCount()).isEqualTo(4L);
+        assertThat(stats.getRegions())
+                .extracting("region", "hitCount", "missCount", "putCount")
+                .containsExactly(tuple("teacher", 9L, 1L, 2L));
+    }
+}
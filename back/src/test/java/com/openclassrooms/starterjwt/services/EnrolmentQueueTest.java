@@ -0,0 +1,190 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.config.SqlStatementListener;
+import com.openclassrooms.starterjwt.dto.EnrolmentDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EnrolmentQueueTest {
+
+    @Mock
+    private EnrolmentWriter enrolmentWriter;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private EnrolmentQueue queue(boolean enabled, int queueCapacity) {
+        return new EnrolmentQueue(enrolmentWriter, new SqlStatementListener(meterRegistryProvider, 500), new SimpleMeterRegistry(),
+                enabled, 50, 5, queueCapacity, 60000);
+    }
+
+    @Test
+    public void testSubmitReturnsPendingEnrolment() {
+        EnrolmentQueue queue = queue(false, 10);
+
+        EnrolmentDto enrolment = queue.submit("key", 1L, 2L);
+
+        assertThat(enrolment.getStatus()).isEqualTo(EnrolmentDto.Status.PENDING);
+        assertThat(queue.getStatus("key")).isEqualTo(enrolment);
+        assertThat(queue.getStatus("unknown")).isNull();
+    }
+
+    @Test
+    public void testSubmitWithSameKeyIsNotQueuedTwice() {
+        EnrolmentQueue queue = queue(false, 1);
+
+        queue.submit("key", 1L, 2L);
+        EnrolmentDto retry = queue.submit("key", 1L, 2L);
+
+        assertThat(retry.getStatus()).isEqualTo(EnrolmentDto.Status.PENDING);
+    }
+
+    @Test
+    public void testSubmitWithKeyOfAnotherEnrolmentThrowsBadRequest() {
+        EnrolmentQueue queue = queue(false, 10);
+        queue.submit("key", 1L, 2L);
+
+        assertThatThrownBy(() -> queue.submit("key", 1L, 3L)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    public void testSubmitOnFullQueueIsRejected() {
+        EnrolmentQueue queue = queue(false, 1);
+        queue.submit("first", 1L, 2L);
+
+        assertThatThrownBy(() -> queue.submit("second", 1L, 3L)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(queue.getStatus("second")).isNull();
+    }
+
+    @Test
+    public void testFlushStoresWriterStatuses() {
+        EnrolmentQueue queue = queue(false, 10);
+        EnrolmentDto enrolled = queue.submit("a", 1L, 2L);
+        EnrolmentDto full = queue.submit("b", 1L, 3L);
+        Map<String, EnrolmentDto.Status> statuses = new HashMap<>();
+        statuses.put("a", EnrolmentDto.Status.ENROLLED);
+        statuses.put("b", EnrolmentDto.Status.FULL);
+        when(enrolmentWriter.write(Arrays.asList(enrolled, full))).thenReturn(statuses);
+
+        queue.flush(Arrays.asList(enrolled, full));
+
+        assertThat(queue.getStatus("a").getStatus()).isEqualTo(EnrolmentDto.Status.ENROLLED);
+        assertThat(queue.getStatus("b").getStatus()).isEqualTo(EnrolmentDto.Status.FULL);
+    }
+
+    @Test
+    public void testFlushMarksBatchFailedWhenWriterThrows() {
+        EnrolmentQueue queue = queue(false, 10);
+        EnrolmentDto enrolment = queue.submit("a", 1L, 2L);
+        when(enrolmentWriter.write(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        queue.flush(Collections.singletonList(enrolment));
+
+        assertThat(queue.getStatus("a").getStatus()).isEqualTo(EnrolmentDto.Status.FAILED);
+    }
+
+    @Test
+    public void testFlushRetriesFailedBatchOneByOne() {
+        EnrolmentQueue queue = queue(false, 10);
+        EnrolmentDto good = queue.submit("a", 1L, 2L);
+        EnrolmentDto bad = queue.submit("b", 1L, 3L);
+        when(enrolmentWriter.write(Arrays.asList(good, bad))).thenThrow(new IllegalStateException("constraint violation"));
+        when(enrolmentWriter.write(Collections.singletonList(good)))
+                .thenReturn(Collections.singletonMap("a", EnrolmentDto.Status.ENROLLED));
+        when(enrolmentWriter.write(Collections.singletonList(bad))).thenThrow(new IllegalStateException("constraint violation"));
+
+        queue.flush(Arrays.asList(good, bad));
+
+        assertThat(queue.getStatus("a").getStatus()).isEqualTo(EnrolmentDto.Status.ENROLLED);
+        assertThat(queue.getStatus("b").getStatus()).isEqualTo(EnrolmentDto.Status.FAILED);
+    }
+
+    @Test
+    public void testSubmitAfterFailureIsQueuedAgain() {
+        EnrolmentQueue queue = queue(false, 10);
+        EnrolmentDto enrolment = queue.submit("a", 1L, 2L);
+        when(enrolmentWriter.write(anyList())).thenThrow(new IllegalStateException("database down"));
+        queue.flush(Collections.singletonList(enrolment));
+
+        EnrolmentDto retry = queue.submit("a", 1L, 2L);
+
+        assertThat(retry.getStatus()).isEqualTo(EnrolmentDto.Status.PENDING);
+        assertThat(queue.getStatus("a").getStatus()).isEqualTo(EnrolmentDto.Status.PENDING);
+    }
+
+    @Test
+    public void testSubmitAfterFullIsQueuedAgain() {
+        EnrolmentQueue queue = queue(false, 10);
+        EnrolmentDto enrolment = queue.submit("a", 1L, 2L);
+        when(enrolmentWriter.write(anyList())).thenReturn(Collections.singletonMap("a", EnrolmentDto.Status.FULL));
+        queue.flush(Collections.singletonList(enrolment));
+
+        EnrolmentDto retry = queue.submit("a", 1L, 2L);
+
+        assertThat(retry.getStatus()).isEqualTo(EnrolmentDto.Status.PENDING);
+        assertThat(queue.getStatus("a").getStatus()).isEqualTo(EnrolmentDto.Status.PENDING);
+    }
+
+    @Test
+    public void testSubmitAfterEnrolledReturnsStatus() {
+        EnrolmentQueue queue = queue(false, 1);
+        EnrolmentDto enrolment = queue.submit("a", 1L, 2L);
+        when(enrolmentWriter.write(anyList())).thenReturn(Collections.singletonMap("a", EnrolmentDto.Status.ENROLLED));
+        queue.flush(Collections.singletonList(enrolment));
+
+        EnrolmentDto retry = queue.submit("a", 1L, 2L);
+
+        assertThat(retry.getStatus()).isEqualTo(EnrolmentDto.Status.ENROLLED);
+    }
+
+    @Test
+    public void testSubmitAfterStopIsRejected() throws Exception {
+        EnrolmentQueue queue = queue(true, 10);
+        queue.start();
+        queue.stop();
+
+        assertThatThrownBy(() -> queue.submit("a", 1L, 2L)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(queue.getStatus("a")).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWriterThreadFlushesQueuedEnrolmentsInOneBatch() throws Exception {
+        when(enrolmentWriter.write(anyList())).thenAnswer(invocation -> {
+            Map<String, EnrolmentDto.Status> statuses = new HashMap<>();
+            for (EnrolmentDto enrolment : (List<EnrolmentDto>) invocation.getArgument(0)) {
+                statuses.put(enrolment.getKey(), EnrolmentDto.Status.ENROLLED);
+            }
+            return statuses;
+        });
+        EnrolmentQueue queue = queue(true, 10);
+        queue.submit("a", 1L, 2L);
+        queue.submit("b", 1L, 3L);
+
+        queue.start();
+        queue.stop();
+
+        verify(enrolmentWriter, times(1)).write(anyList());
+        assertThat(queue.getStatus("a").getStatus()).isEqualTo(EnrolmentDto.Status.ENROLLED);
+        assertThat(queue.getStatus("b").getStatus()).isEqualTo(EnrolmentDto.Status.ENROLLED);
+    }
+}
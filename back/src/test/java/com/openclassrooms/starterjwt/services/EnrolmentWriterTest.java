@@ -0,0 +1,137 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.EnrolmentDto;
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.repository.projection.SessionSeats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EnrolmentWriterTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ParticipationRepository participationRepository;
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private EnrolmentWriter enrolmentWriter;
+
+    private static SessionSeats seats(Long id, Integer capacity, Integer participantCount) {
+        return new SessionSeats() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public Integer getParticipantCount() {
+                return participantCount;
+            }
+        };
+    }
+
+    private static EnrolmentDto enrolment(String key, Long sessionId, Long userId) {
+        return new EnrolmentDto(key, sessionId, userId, EnrolmentDto.Status.PENDING);
+    }
+
+    @Test
+    public void testWriteEnrolsUntilSessionIsFull() {
+        when(sessionRepository.lockSeats(anyCollection())).thenReturn(Collections.singletonList(seats(1L, 2, 1)));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Arrays.asList(10L, 11L));
+
+        Map<String, EnrolmentDto.Status> statuses = enrolmentWriter.write(Arrays.asList(
+                enrolment("a", 1L, 10L),
+                enrolment("b", 1L, 11L)));
+
+        assertThat(statuses).containsEntry("a", EnrolmentDto.Status.ENROLLED)
+                .containsEntry("b", EnrolmentDto.Status.FULL);
+        verify(entityManager).persist(new Participation(1L, 10L));
+        verify(sessionRepository).reserveSeats(1L, 1);
+    }
+
+    @Test
+    public void testWriteSkipsExistingAndDuplicateParticipations() {
+        when(sessionRepository.lockSeats(anyCollection())).thenReturn(Collections.singletonList(seats(1L, null, 1)));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Arrays.asList(10L, 11L));
+        when(participationRepository.findBySessionIdInAndUserIdIn(anyCollection(), anyCollection()))
+                .thenReturn(Collections.singletonList(new Participation(1L, 10L)));
+
+        Map<String, EnrolmentDto.Status> statuses = enrolmentWriter.write(Arrays.asList(
+                enrolment("a", 1L, 10L),
+                enrolment("b", 1L, 11L),
+                enrolment("c", 1L, 11L)));
+
+        assertThat(statuses).containsEntry("a", EnrolmentDto.Status.ALREADY_ENROLLED)
+                .containsEntry("b", EnrolmentDto.Status.ENROLLED)
+                .containsEntry("c", EnrolmentDto.Status.ALREADY_ENROLLED);
+        verify(entityManager, times(1)).persist(any(Participation.class));
+        verify(sessionRepository).reserveSeats(1L, 1);
+    }
+
+    @Test
+    public void testWriteReportsUnknownSessionsAndUsers() {
+        when(sessionRepository.lockSeats(anyCollection())).thenReturn(Collections.singletonList(seats(1L, null, 0)));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Collections.singletonList(10L));
+
+        Map<String, EnrolmentDto.Status> statuses = enrolmentWriter.write(Arrays.asList(
+                enrolment("a", 2L, 10L),
+                enrolment("b", 1L, 99L)));
+
+        assertThat(statuses).containsEntry("a", EnrolmentDto.Status.NOT_FOUND)
+                .containsEntry("b", EnrolmentDto.Status.NOT_FOUND);
+        verifyNoInteractions(entityManager);
+        verify(sessionRepository, never()).reserveSeats(anyLong(), anyInt());
+        verifyNoInteractions(waitlistRepository);
+    }
+
+    @Test
+    public void testWriteRemovesEnrolledUsersFromWaitlists() {
+        when(sessionRepository.lockSeats(anyCollection())).thenReturn(Arrays.asList(seats(1L, null, 0), seats(2L, null, 0)));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Arrays.asList(10L, 11L));
+        when(waitlistRepository.findBySessionIdInAndUserIdIn(anyCollection(), anyCollection())).thenReturn(Arrays.asList(
+                WaitlistEntry.builder().id(100L).sessionId(1L).userId(10L).build(),
+                WaitlistEntry.builder().id(101L).sessionId(2L).userId(10L).build()));
+
+        enrolmentWriter.write(Arrays.asList(
+                enrolment("a", 1L, 10L),
+                enrolment("b", 2L, 11L)));
+
+        verify(waitlistRepository).deleteAllByIdInBatch(Collections.singletonList(100L));
+    }
+}
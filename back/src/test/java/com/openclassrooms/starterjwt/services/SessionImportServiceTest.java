@@ -0,0 +1,161 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionImportReportDto;
+import com.openclassrooms.starterjwt.dto.SessionImportRowDto;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.GsonConfig;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import javax.persistence.EntityManagerFactory;
+import javax.validation.Validation;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionImportServiceTest {
+    private static final String DATE = "\"2026-11-01T10:00:00.000Z\"";
+
+    @Mock
+    private SessionImportWriter sessionImportWriter;
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    private SessionImportService sessionImportService;
+
+    @BeforeEach
+    public void setUp() {
+        sessionImportService = new SessionImportService(sessionImportWriter, teacherRepository, userRepository,
+                entityManagerFactory, Validation.buildDefaultValidatorFactory().getValidator(), new GsonConfig().gson(), 2);
+    }
+
+    private void givenCacheIsEvicted() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+    }
+
+    private static String session(String name, long teacherId, String users) {
+        return "{\"name\":\"" + name + "\",\"date\":" + DATE + ",\"teacher_id\":" + teacherId
+                + ",\"description\":\"desc\",\"users\":[" + users + "]}";
+    }
+
+    @Test
+    public void testImportJsonArrayReportsEveryRow() throws Exception {
+        givenCacheIsEvicted();
+        when(teacherRepository.findExistingIds(anyCollection())).thenReturn(Collections.singletonList(1L));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Collections.singletonList(10L));
+        when(sessionImportWriter.insert(anyList())).thenReturn(Collections.singletonList(100L));
+        String body = "[" + session("Yoga", 1L, "10,10") + "," + session("", 1L, "") + "," + session("Pilates", 2L, "") + "]";
+
+        SessionImportReportDto report = sessionImportService.importSessions(new StringReader(body), false);
+
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(report.getRows()).extracting(SessionImportRowDto::getRow, SessionImportRowDto::getStatus, SessionImportRowDto::getId)
+                .containsExactly(
+                        tuple(1, SessionImportRowDto.Status.CREATED, 100L),
+                        tuple(2, SessionImportRowDto.Status.INVALID, null),
+                        tuple(3, SessionImportRowDto.Status.INVALID, null));
+        assertThat(report.getRows().get(2).getErrors()).containsExactly("Unknown teacher id: 2");
+        verify(sessionImportWriter).insert(argThat((List<SessionDto> sessions) ->
+                sessions.size() == 1 && sessions.get(0).getUsers().equals(Collections.singletonList(10L))));
+        verify(cache).evictQueryRegions();
+    }
+
+    @Test
+    public void testImportNdjsonSkipsMalformedLines() throws Exception {
+        givenCacheIsEvicted();
+        when(teacherRepository.findExistingIds(anyCollection())).thenReturn(Collections.singletonList(1L));
+        when(sessionImportWriter.insert(anyList())).thenReturn(Arrays.asList(100L, 101L));
+        String body = session("Yoga", 1L, "") + "\n{not json\n\n" + session("Pilates", 1L, "") + "\n";
+
+        SessionImportReportDto report = sessionImportService.importSessions(new StringReader(body), true);
+
+        assertThat(report.getRows()).extracting(SessionImportRowDto::getRow, SessionImportRowDto::getStatus, SessionImportRowDto::getId)
+                .containsExactly(
+                        tuple(1, SessionImportRowDto.Status.CREATED, 100L),
+                        tuple(2, SessionImportRowDto.Status.INVALID, null),
+                        tuple(3, SessionImportRowDto.Status.CREATED, 101L));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testImportStopsAtMalformedJsonArray() throws Exception {
+        String body = "[" + session("Yoga", 1L, "") + ", 42, " + session("Pilates", 1L, "") + "]";
+        givenCacheIsEvicted();
+        when(teacherRepository.findExistingIds(anyCollection())).thenReturn(Collections.singletonList(1L));
+        when(sessionImportWriter.insert(anyList())).thenReturn(Collections.singletonList(100L));
+
+        SessionImportReportDto report = sessionImportService.importSessions(new StringReader(body), false);
+
+        assertThat(report.getRows()).extracting(SessionImportRowDto::getStatus)
+                .containsExactly(SessionImportRowDto.Status.CREATED, SessionImportRowDto.Status.INVALID);
+    }
+
+    @Test
+    public void testImportWritesInBatches() throws Exception {
+        givenCacheIsEvicted();
+        when(teacherRepository.findExistingIds(anyCollection())).thenReturn(Collections.singletonList(1L));
+        when(sessionImportWriter.insert(anyList())).thenReturn(Arrays.asList(100L, 101L))
+                .thenReturn(Collections.singletonList(102L));
+        String body = session("A", 1L, "") + "\n" + session("B", 1L, "") + "\n" + session("C", 1L, "") + "\n";
+
+        SessionImportReportDto report = sessionImportService.importSessions(new StringReader(body), true);
+
+        assertThat(report.getCreated()).isEqualTo(3);
+        verify(sessionImportWriter, times(2)).insert(anyList());
+        verify(teacherRepository, times(2)).findExistingIds(anyCollection());
+    }
+
+    @Test
+    public void testImportReportsFailedBatch() throws Exception {
+        givenCacheIsEvicted();
+        when(teacherRepository.findExistingIds(anyCollection())).thenReturn(Collections.singletonList(1L));
+        when(sessionImportWriter.insert(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        SessionImportReportDto report = sessionImportService.importSessions(new StringReader(session("A", 1L, "")), true);
+
+        assertThat(report.getCreated()).isZero();
+        assertThat(report.getRows()).extracting(SessionImportRowDto::getStatus).containsExactly(SessionImportRowDto.Status.FAILED);
+        verify(cache).evictQueryRegions();
+    }
+
+    @Test
+    public void testImportRejectsParticipantsAboveCapacity() throws Exception {
+        String body = "{\"name\":\"A\",\"date\":" + DATE + ",\"teacher_id\":1,\"description\":\"d\",\"users\":[1,2],\"capacity\":1}";
+
+        SessionImportReportDto report = sessionImportService.importSessions(new StringReader(body), true);
+
+        assertThat(report.getRows().get(0).getErrors()).containsExactly("Capacity is below the number of participants");
+        verifyNoInteractions(sessionImportWriter);
+    }
+}
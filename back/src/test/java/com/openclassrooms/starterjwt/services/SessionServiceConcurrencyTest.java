@@ -0,0 +1,129 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against the real database: the race only shows up with two transactions contending for the same rows.
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-integrationtest.properties")
+public class SessionServiceConcurrencyTest {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void tearDown() {
+        waitlistRepository.deleteAll();
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .lastName("Doe")
+                .firstName("John")
+                .password("password")
+                .admin(false)
+                .build());
+    }
+
+    @Test
+    public void testConcurrentCancellationsPromoteSuccessiveEntries() throws Exception {
+        User first = user("first@test.com");
+        User second = user("second@test.com");
+        User third = user("third@test.com");
+        User fourth = user("fourth@test.com");
+        Session session = sessionRepository.save(Session.builder()
+                .name("Full session")
+                .date(new Date())
+                .description("Two seats")
+                .capacity(2)
+                .participantCount(2)
+                .users(Arrays.asList(first, second))
+                .build());
+        waitlistRepository.save(WaitlistEntry.builder().sessionId(session.getId()).userId(third.getId()).build());
+        waitlistRepository.save(WaitlistEntry.builder().sessionId(session.getId()).userId(fourth.getId()).build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?>[] cancellations = new Future<?>[2];
+
+            // Holding the head of the queue lines both cancellations up behind it before either can promote.
+            new TransactionTemplate(transactionManager).execute(status -> {
+                jdbcTemplate.queryForList("select id from WAITLIST where session_id = ? order by id limit 1 for update",
+                        session.getId());
+
+                cancellations[0] = executor.submit(() -> sessionService.noLongerParticipate(session.getId(), first.getId()));
+                cancellations[1] = executor.submit(() -> sessionService.noLongerParticipate(session.getId(), second.getId()));
+                awaitLockWaits(2);
+                return null;
+            });
+
+            for (Future<?> cancellation : cancellations) {
+                cancellation.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sessionRepository.isParticipant(session.getId(), third.getId())).isTrue();
+        assertThat(sessionRepository.isParticipant(session.getId(), fourth.getId())).isTrue();
+        assertThat(waitlistRepository.count()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select participant_count from SESSIONS where id = ?", Integer.class,
+                session.getId())).isEqualTo(2);
+    }
+
+    // InnoDB only refreshes its transaction table when it has not been read for 100ms, so polling must be slower.
+    private void awaitLockWaits(int expected) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        try {
+            while (jdbcTemplate.queryForObject(
+                    "select count(*) from information_schema.INNODB_TRX where trx_state = 'LOCK WAIT'", Integer.class) < expected
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(200);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionCursor;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.repository.projection.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.projection.SessionListVersion;
+import com.openclassrooms.starterjwt.repository.projection.SessionParticipantRow;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
 import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,8 +21,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -30,6 +41,9 @@ public class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -65,15 +79,29 @@ public class SessionServiceTest {
 
         assertThat(createdSession).isNotNull();
         assertThat(createdSession.getId()).isEqualTo(session.getId());
+        assertThat(createdSession.getParticipantCount()).isEqualTo(1);
         verify(sessionRepository, times(1)).save(session);
     }
 
+    @Test
+    public void testCreate_CapacityBelowParticipants() {
+        session.setCapacity(1);
+        session.getUsers().add(User.builder().id(2L).email("jane.doe@example.com").firstName("Jane")
+                .lastName("Doe").password("password").admin(false).build());
+
+        assertThatThrownBy(() -> sessionService.create(session))
+                .isInstanceOf(BadRequestException.class);
+
+        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
     @Test
     public void testDelete() {
         doNothing().when(sessionRepository).deleteById(anyLong());
 
         sessionService.delete(session.getId());
 
+        verify(waitlistRepository, times(1)).removeAll(session.getId());
         verify(sessionRepository, times(1)).deleteById(session.getId());
     }
 
@@ -101,6 +129,130 @@ public class SessionServiceTest {
         verify(sessionRepository, times(1)).findAll();
     }
 
+    @Test
+    public void testGetListVersion() {
+        SessionListVersion listVersion = mock(SessionListVersion.class);
+        when(sessionRepository.findListVersion()).thenReturn(listVersion);
+
+        assertThat(sessionService.getListVersion()).isSameAs(listVersion);
+        verify(sessionRepository, never()).findAllSummaries();
+    }
+
+    @Test
+    public void testFindAllSummaries() {
+        SessionSummary summary = mock(SessionSummary.class);
+        when(sessionRepository.findAllSummaries()).thenReturn(Collections.singletonList(summary));
+
+        List<SessionSummary> summaries = sessionService.findAllSummaries();
+
+        assertThat(summaries).containsExactly(summary);
+        verify(sessionRepository, times(1)).findAllSummaries();
+        verify(sessionRepository, never()).findAll();
+    }
+
+    @Test
+    public void testFindSummaryPage_FirstPage() {
+        Date from = new Date(1000L);
+        Date to = new Date(2000L);
+        SessionSummary summary = mock(SessionSummary.class);
+        when(sessionRepository.findSummaryPage(from, to, PageRequest.of(0, 21))).thenReturn(Collections.singletonList(summary));
+
+        List<SessionSummary> summaries = sessionService.findSummaryPage(from, to, null, 21);
+
+        assertThat(summaries).containsExactly(summary);
+        verify(sessionRepository, never()).findSummaryPageAfter(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testFindSummaryPage_AfterCursor() {
+        SessionCursor cursor = new SessionCursor(new Date(1500L), 7L);
+        SessionSummary summary = mock(SessionSummary.class);
+        when(sessionRepository.findSummaryPageAfter(null, null, cursor.getDate(), 7L, PageRequest.of(0, 11)))
+                .thenReturn(Collections.singletonList(summary));
+
+        List<SessionSummary> summaries = sessionService.findSummaryPage(null, null, cursor, 11);
+
+        assertThat(summaries).containsExactly(summary);
+        verify(sessionRepository, never()).findSummaryPage(any(), any(), any());
+    }
+
+    @Test
+    public void testFindParticipantIds() {
+        List<SessionParticipant> participants = Arrays.asList(
+                participant(1L, 10L),
+                participant(1L, 11L),
+                participant(2L, 10L));
+        when(sessionRepository.findAllParticipants()).thenReturn(participants);
+
+        Map<Long, List<Long>> participantIds = sessionService.findParticipantIds();
+
+        assertThat(participantIds).hasSize(2);
+        assertThat(participantIds.get(1L)).containsExactly(10L, 11L);
+        assertThat(participantIds.get(2L)).containsExactly(10L);
+    }
+
+    @Test
+    public void testFindParticipantIds_ForSessions() {
+        List<Long> sessionIds = Arrays.asList(1L, 3L);
+        List<SessionParticipant> participants = Collections.singletonList(participant(1L, 10L));
+        when(sessionRepository.findParticipants(sessionIds)).thenReturn(participants);
+
+        Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(sessionIds);
+
+        assertThat(participantIds).containsOnlyKeys(1L);
+        assertThat(participantIds.get(1L)).containsExactly(10L);
+    }
+
+    @Test
+    public void testFindParticipantIds_NoSessions() {
+        Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(Collections.emptyList());
+
+        assertThat(participantIds).isEmpty();
+        verify(sessionRepository, never()).findParticipants(any());
+    }
+
+    @Test
+    public void testStreamAll() {
+        Stream<SessionParticipantRow> rows = Stream.of(
+                row(1L, 10L),
+                row(1L, 11L),
+                row(2L, null),
+                row(3L, 10L));
+        when(sessionRepository.streamAllWithParticipants()).thenReturn(rows);
+
+        Map<Long, List<Long>> streamed = new LinkedHashMap<>();
+        sessionService.streamAll((summary, users) -> streamed.put(summary.getId(), users));
+
+        assertThat(streamed).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(streamed.get(1L)).containsExactly(10L, 11L);
+        assertThat(streamed.get(2L)).isEmpty();
+        assertThat(streamed.get(3L)).containsExactly(10L);
+    }
+
+    @Test
+    public void testStreamAll_Empty() {
+        when(sessionRepository.streamAllWithParticipants()).thenReturn(Stream.empty());
+
+        List<SessionSummary> streamed = new ArrayList<>();
+        sessionService.streamAll((summary, users) -> streamed.add(summary));
+
+        assertThat(streamed).isEmpty();
+    }
+
+    private SessionParticipantRow row(Long sessionId, Long userId) {
+        SessionParticipantRow row = mock(SessionParticipantRow.class);
+        when(row.getId()).thenReturn(sessionId);
+        when(row.getUserId()).thenReturn(userId);
+        return row;
+    }
+
+    private SessionParticipant participant(Long sessionId, Long userId) {
+        SessionParticipant participant = mock(SessionParticipant.class);
+        when(participant.getSessionId()).thenReturn(sessionId);
+        when(participant.getUserId()).thenReturn(userId);
+        return participant;
+    }
+
     @Test
     public void testGetById_Success() {
         when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
@@ -147,86 +299,219 @@ public class SessionServiceTest {
 
     @Test
     public void testParticipate_Success() {
-        session.getUsers().remove(user);
-
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(sessionRepository.save(any(Session.class))).thenReturn(session);
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(true);
+        when(sessionRepository.reserveSeat(session.getId())).thenReturn(1);
+        when(sessionRepository.addParticipant(session.getId(), user.getId())).thenReturn(1);
 
         sessionService.participate(session.getId(), user.getId());
 
-        assertThat(session.getUsers()).contains(user);
-
-        verify(sessionRepository, times(1)).findById(session.getId());
-        verify(userRepository, times(1)).findById(user.getId());
-        verify(sessionRepository, times(1)).save(session);
+        verify(sessionRepository, times(1)).addParticipant(session.getId(), user.getId());
+        verify(waitlistRepository, times(1)).removeEntry(session.getId(), user.getId());
+        verify(sessionRepository, never()).findById(anyLong());
+        verify(sessionRepository, never()).save(any(Session.class));
     }
 
     @Test
     public void testParticipate_SessionNotFound() {
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.existsById(session.getId())).thenReturn(false);
 
         assertThatThrownBy(() -> sessionService.participate(session.getId(), user.getId()))
                 .isInstanceOf(NotFoundException.class);
 
-        verify(sessionRepository, times(1)).findById(session.getId());
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
     }
 
     @Test
     public void testParticipate_UserNotFound() {
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(false);
 
         assertThatThrownBy(() -> sessionService.participate(session.getId(), user.getId()))
                 .isInstanceOf(NotFoundException.class);
 
-        verify(sessionRepository, times(1)).findById(session.getId());
-        verify(userRepository, times(1)).findById(user.getId());
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testParticipate_SessionFull() {
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(true);
+        when(sessionRepository.reserveSeat(session.getId())).thenReturn(0);
+
+        assertThatThrownBy(() -> sessionService.participate(session.getId(), user.getId()))
+                .isInstanceOf(SessionFullException.class);
+
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
     }
 
     @Test
     public void testParticipate_AlreadyParticipating() {
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(true);
+        when(sessionRepository.isParticipant(session.getId(), user.getId())).thenReturn(true);
 
         assertThatThrownBy(() -> sessionService.participate(session.getId(), user.getId()))
                 .isInstanceOf(BadRequestException.class);
 
-        verify(sessionRepository, times(1)).findById(session.getId());
-        verify(userRepository, times(1)).findById(user.getId());
+        verify(sessionRepository, never()).reserveSeat(anyLong());
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testParticipate_ConcurrentDuplicate() {
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(true);
+        when(sessionRepository.reserveSeat(session.getId())).thenReturn(1);
+        when(sessionRepository.addParticipant(session.getId(), user.getId()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertThatThrownBy(() -> sessionService.participate(session.getId(), user.getId()))
+                .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     public void testNoLongerParticipate_Success() {
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
-        when(sessionRepository.save(session)).thenReturn(session);
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(sessionRepository.removeParticipant(session.getId(), user.getId())).thenReturn(1);
 
         sessionService.noLongerParticipate(session.getId(), user.getId());
 
-        assertThat(session.getUsers()).doesNotContain(user);
-
-        verify(sessionRepository, times(1)).findById(session.getId());
-        verify(sessionRepository, times(1)).save(session);
+        verify(sessionRepository, times(1)).removeParticipant(session.getId(), user.getId());
+        verify(sessionRepository, times(1)).releaseSeat(session.getId());
+        verify(sessionRepository, never()).save(any(Session.class));
     }
 
     @Test
     public void testNoLongerParticipate_SessionNotFound() {
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.existsById(session.getId())).thenReturn(false);
 
         assertThatThrownBy(() -> sessionService.noLongerParticipate(session.getId(), user.getId()))
                 .isInstanceOf(NotFoundException.class);
 
-        verify(sessionRepository, times(1)).findById(session.getId());
+        verify(sessionRepository, never()).removeParticipant(anyLong(), anyLong());
     }
 
     @Test
     public void testNoLongerParticipate_NotParticipating() {
-        session.setUsers(Collections.emptyList());
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(sessionRepository.removeParticipant(session.getId(), user.getId())).thenReturn(0);
 
         assertThatThrownBy(() -> sessionService.noLongerParticipate(session.getId(), user.getId()))
                 .isInstanceOf(BadRequestException.class);
 
-        verify(sessionRepository, times(1)).findById(session.getId());
+        verify(sessionRepository, never()).releaseSeat(anyLong());
+    }
+
+    @Test
+    public void testNoLongerParticipate_PromotesFromWaitlist() {
+        WaitlistEntry next = WaitlistEntry.builder().id(5L).sessionId(session.getId()).userId(2L).build();
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(sessionRepository.removeParticipant(session.getId(), user.getId())).thenReturn(1);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(session.getId())).thenReturn(Optional.of(next));
+        when(waitlistRepository.removeEntry(next.getId())).thenReturn(1);
+
+        sessionService.noLongerParticipate(session.getId(), user.getId());
+
+        verify(sessionRepository, times(1)).addParticipant(session.getId(), 2L);
+        verify(sessionRepository, times(1)).touch(session.getId());
+        verify(sessionRepository, never()).releaseSeat(anyLong());
+    }
+
+    @Test
+    public void testNoLongerParticipate_SkipsEntryAlreadyParticipating() {
+        WaitlistEntry enrolled = WaitlistEntry.builder().id(5L).sessionId(session.getId()).userId(2L).build();
+        WaitlistEntry next = WaitlistEntry.builder().id(6L).sessionId(session.getId()).userId(3L).build();
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(sessionRepository.removeParticipant(session.getId(), user.getId())).thenReturn(1);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(session.getId()))
+                .thenReturn(Optional.of(enrolled))
+                .thenReturn(Optional.of(next));
+        when(waitlistRepository.removeEntry(enrolled.getId())).thenReturn(1);
+        when(waitlistRepository.removeEntry(next.getId())).thenReturn(1);
+        when(sessionRepository.isParticipant(session.getId(), 2L)).thenReturn(true);
+        when(sessionRepository.isParticipant(session.getId(), 3L)).thenReturn(false);
+
+        sessionService.noLongerParticipate(session.getId(), user.getId());
+
+        verify(sessionRepository, never()).addParticipant(session.getId(), 2L);
+        verify(sessionRepository, times(1)).addParticipant(session.getId(), 3L);
+        verify(sessionRepository, never()).releaseSeat(anyLong());
+    }
+
+    @Test
+    public void testJoinWaitlist_Success() {
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(true);
+        when(sessionRepository.isParticipant(session.getId(), user.getId())).thenReturn(false);
+        when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class)))
+                .thenAnswer(invocation -> invocation.<WaitlistEntry>getArgument(0).setId(7L));
+        when(waitlistRepository.countPosition(session.getId(), 7L)).thenReturn(3L);
+
+        long position = sessionService.joinWaitlist(session.getId(), user.getId());
+
+        assertThat(position).isEqualTo(3L);
+    }
+
+    @Test
+    public void testJoinWaitlist_AlreadyParticipating() {
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(true);
+        when(sessionRepository.isParticipant(session.getId(), user.getId())).thenReturn(true);
+
+        assertThatThrownBy(() -> sessionService.joinWaitlist(session.getId(), user.getId()))
+                .isInstanceOf(BadRequestException.class);
+
+        verify(waitlistRepository, never()).saveAndFlush(any(WaitlistEntry.class));
+    }
+
+    @Test
+    public void testJoinWaitlist_FreeSeats() {
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(true);
+        when(sessionRepository.isParticipant(session.getId(), user.getId())).thenReturn(false);
+        when(sessionRepository.hasFreeSeat(session.getId())).thenReturn(true);
+
+        assertThatThrownBy(() -> sessionService.joinWaitlist(session.getId(), user.getId()))
+                .isInstanceOf(BadRequestException.class);
+
+        verify(waitlistRepository, never()).saveAndFlush(any(WaitlistEntry.class));
+    }
+
+    @Test
+    public void testJoinWaitlist_AlreadyWaiting() {
+        when(sessionRepository.existsById(session.getId())).thenReturn(true);
+        when(userRepository.existsById(user.getId())).thenReturn(true);
+        when(sessionRepository.isParticipant(session.getId(), user.getId())).thenReturn(false);
+        when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertThatThrownBy(() -> sessionService.joinWaitlist(session.getId(), user.getId()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    public void testGetWaitlistPosition() {
+        WaitlistEntry entry = WaitlistEntry.builder().id(7L).sessionId(session.getId()).userId(user.getId()).build();
+        when(waitlistRepository.findBySessionIdAndUserId(session.getId(), user.getId())).thenReturn(Optional.of(entry));
+        when(waitlistRepository.countPosition(session.getId(), 7L)).thenReturn(2L);
+
+        assertThat(sessionService.getWaitlistPosition(session.getId(), user.getId())).isEqualTo(2L);
+    }
+
+    @Test
+    public void testGetWaitlistPosition_NotWaiting() {
+        when(waitlistRepository.findBySessionIdAndUserId(session.getId(), user.getId())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> sessionService.getWaitlistPosition(session.getId(), user.getId()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void testLeaveWaitlist_NotWaiting() {
+        when(waitlistRepository.removeEntry(session.getId(), user.getId())).thenReturn(0);
+
+        assertThatThrownBy(() -> sessionService.leaveWaitlist(session.getId(), user.getId()))
+                .isInstanceOf(NotFoundException.class);
     }
 }
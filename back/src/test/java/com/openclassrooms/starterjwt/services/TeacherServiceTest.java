@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.projection.ListVersion;
 import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,9 +11,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -24,6 +28,9 @@ public class TeacherServiceTest {
     @Mock
     private TeacherRepository teacherRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private TeacherService teacherService;
 
@@ -83,4 +90,26 @@ public class TeacherServiceTest {
         assertThat(foundTeacher).isNull();
         verify(teacherRepository, times(1)).findById(teacher.getId());
     }
+
+    @Test
+    public void testGetListVersion() {
+        ListVersion listVersion = mock(ListVersion.class);
+        when(teacherRepository.findListVersion()).thenReturn(listVersion);
+
+        assertThat(teacherService.getListVersion()).isSameAs(listVersion);
+        verify(teacherRepository, never()).findAll();
+    }
+
+    @Test
+    public void testStreamAll() {
+        Teacher otherTeacher = Teacher.builder().id(2L).firstName("Jane").lastName("Doe").build();
+        when(teacherRepository.streamAll()).thenReturn(Stream.of(teacher, otherTeacher));
+
+        List<Teacher> streamedTeachers = new ArrayList<>();
+        teacherService.streamAll(streamedTeachers::add);
+
+        assertThat(streamedTeachers).containsExactly(teacher, otherTeacher);
+        verify(entityManager, times(1)).detach(teacher);
+        verify(entityManager, times(1)).detach(otherTeacher);
+    }
 }
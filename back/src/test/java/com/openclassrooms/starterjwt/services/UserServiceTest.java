@@ -9,6 +9,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -75,4 +78,15 @@ public class UserServiceTest {
         assertThat(foundUser).isNull();
         verify(userRepository, times(1)).findById(user.getId());
     }
+
+    @Test
+    public void testFindAllById() {
+        List<Long> ids = Arrays.asList(1L, 2L);
+        when(userRepository.findAllById(ids)).thenReturn(Collections.singletonList(user));
+
+        List<User> foundUsers = userService.findAllById(ids);
+
+        assertThat(foundUsers).containsExactly(user);
+        verify(userRepository, times(1)).findAllById(ids);
+    }
 }